@@ -0,0 +1,53 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Analyzer#visit(Ast.Source)} over pre-parsed programs from
+ * {@link ProgramGenerator}. Analysis only sets the type and variable of each
+ * node, so re-analyzing the same tree does the same work every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyzerBenchmark {
+
+    @Param({"10", "100"})
+    public int functions;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"4"})
+    public int width;
+
+    private Ast.Source ast;
+
+    @Setup
+    public void setup() {
+        ast = new Parser(new Lexer(ProgramGenerator.generate(42, functions, depth, width)).lex()).parseSource();
+    }
+
+    @Benchmark
+    public plc.project.Scope visit() {
+        Analyzer analyzer = new Analyzer(new plc.project.Scope(null));
+        analyzer.visit(ast);
+        return analyzer.getScope();
+    }
+
+}
@@ -0,0 +1,66 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading an analyzed {@link Ast.Source} from an {@link AstCache}
+ * entry against lexing, parsing and analyzing the source, for programs from
+ * {@link ProgramGenerator}. Entries are read from memory to leave out the
+ * file system.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AstCacheBenchmark {
+
+    @Param({"10", "100"})
+    public int functions;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"4"})
+    public int width;
+
+    private String input;
+    private byte[] entry;
+
+    @Setup
+    public void setup() throws IOException {
+        input = ProgramGenerator.generate(42, functions, depth, width);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AstCache.write(analyze(), true, out);
+        entry = out.toByteArray();
+    }
+
+    @Benchmark
+    public Ast.Source analyze() {
+        Ast.Source ast = new Parser(new DfaLexer(input).lex()).parseSource();
+        new Analyzer(new plc.project.Scope(null)).visit(ast);
+        return ast;
+    }
+
+    @Benchmark
+    public Ast.Source readEntry() throws IOException {
+        return AstCache.read(ByteBuffer.wrap(entry));
+    }
+
+}
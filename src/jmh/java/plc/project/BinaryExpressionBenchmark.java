@@ -0,0 +1,54 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Interpreter#visit(Ast.Expression.Binary)} on a chain of
+ * {@code depth} nested binaries, {@code ((1 op 1) op 1) ...}, whose cost
+ * should grow linearly with the depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryExpressionBenchmark {
+
+    @Param({"+", "-", "*"})
+    public String operator;
+
+    @Param({"4", "8", "12", "64"})
+    public int depth;
+
+    private Ast.Expression ast;
+    private Interpreter interpreter;
+
+    @Setup
+    public void setup() {
+        ast = new Ast.Expression.Literal(BigInteger.ONE);
+        for(int i = 0; i < depth; i++) {
+            ast = new Ast.Expression.Binary(operator, ast, new Ast.Expression.Literal(BigInteger.ONE));
+        }
+        interpreter = new Interpreter(new plc.project.Scope(null));
+    }
+
+    @Benchmark
+    public Environment.PlcObject visit() {
+        return interpreter.visit(ast);
+    }
+
+}
@@ -0,0 +1,69 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link Interpreter} on a {@code WHILE} loop whose body runs
+ * an {@code IF} and a {@code SWITCH} on every iteration, with blocks that
+ * declare variables or none, unanalyzed and analyzed. Run with {@code -prof
+ * gc}, as the allocation rate of the block scopes is what it measures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockScopeBenchmark {
+
+    @Param({"1000"})
+    public int iterations;
+
+    @Param({"false", "true"})
+    public boolean declares;
+
+    private Ast.Source scoped;
+    private Ast.Source analyzed;
+
+    @Setup
+    public void setup() {
+        String local = declares ? "LET d = i; " : "";
+        String source = String.join("\n",
+                "FUN main(): Integer DO",
+                "    LET i = 0;",
+                "    LET total = 0;",
+                "    WHILE i < " + iterations + " DO",
+                "        " + local + "i = i + 1;",
+                "        IF i > 10 DO " + local + "total = total + 1; ELSE total = total - 1; END",
+                "        SWITCH total CASE 0: " + local + "total = 1; DEFAULT total = total + 1; END",
+                "    END",
+                "    RETURN total;",
+                "END");
+        scoped = new Parser(new Lexer(source).lex()).parseSource();
+        analyzed = new Parser(new Lexer(source).lex()).parseSource();
+        new Analyzer(new plc.project.Scope(null)).visit(analyzed);
+    }
+
+    @Benchmark
+    public Environment.PlcObject visitScoped() {
+        return new Interpreter(new plc.project.Scope(null)).visit(scoped);
+    }
+
+    @Benchmark
+    public Environment.PlcObject visitFrame() {
+        return new Interpreter(new plc.project.Scope(null)).visit(analyzed);
+    }
+
+}
@@ -0,0 +1,66 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Interpreter#visit(Ast.Source)}, evaluating {@code main}
+ * of pre-parsed programs from {@link ProgramGenerator}, by walking the AST and
+ * as a {@link CompiledProgram}, compiled per run or once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark {
+
+    @Param({"10", "100"})
+    public int functions;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"4"})
+    public int width;
+
+    private Ast.Source ast;
+    private CompiledProgram program;
+
+    @Setup
+    public void setup() {
+        ast = new Parser(new Lexer(ProgramGenerator.generate(42, functions, depth, width)).lex()).parseSource();
+        new Analyzer(new plc.project.Scope(null)).visit(ast);
+        program = new CompiledProgram(ast);
+    }
+
+    @Benchmark
+    public Environment.PlcObject visit() {
+        return new Interpreter(new plc.project.Scope(null)).visit(ast);
+    }
+
+    @Benchmark
+    public Environment.PlcObject visitCompiled() {
+        Interpreter interpreter = new Interpreter(new plc.project.Scope(null));
+        interpreter.setCompiled(true);
+        return interpreter.visit(ast);
+    }
+
+    @Benchmark
+    public Environment.PlcObject runCompiled() {
+        return program.run(new Interpreter(new plc.project.Scope(null)).getScope());
+    }
+
+}
@@ -0,0 +1,65 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Lexer#lex()} over programs from {@link ProgramGenerator},
+ * along with ingesting the same program from UTF-8 bytes by decoding it for
+ * {@link DfaLexer} or lexing the bytes directly with {@link Utf8Lexer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+
+    @Param({"10", "100"})
+    public int functions;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"4"})
+    public int width;
+
+    private String input;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        input = ProgramGenerator.generate(42, functions, depth, width);
+        bytes = input.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Token> lex() {
+        return new Lexer(input).lex();
+    }
+
+    @Benchmark
+    public List<Token> decodeAndLex() {
+        return new DfaLexer(new String(bytes, StandardCharsets.UTF_8)).lex();
+    }
+
+    @Benchmark
+    public List<Token> lexBytes() {
+        return new Utf8Lexer(bytes).lex();
+    }
+
+}
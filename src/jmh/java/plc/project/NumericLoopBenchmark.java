@@ -0,0 +1,66 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a {@code WHILE} loop of {@code Integer} arithmetic as a {@link
+ * CompiledProgram}, with every result fitting in a long or with a sum too
+ * large for one, and walked by the {@link Interpreter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericLoopBenchmark {
+
+    @Param({"10000"})
+    public int iterations;
+
+    @Param({"false", "true"})
+    public boolean overflows;
+
+    private Ast.Source ast;
+    private CompiledProgram program;
+
+    @Setup
+    public void setup() {
+        String source = String.join("\n",
+                "FUN main(): Integer DO",
+                "    LET i = 0;",
+                "    LET sum = " + (overflows ? "2147483647 * 2147483647 * 2147483647" : "0") + ";",
+                "    WHILE i < " + iterations + " DO",
+                "        sum = sum + i * i * 3 - i / 7;",
+                "        i = i + 1;",
+                "    END",
+                "    RETURN sum;",
+                "END");
+        ast = new Parser(new Lexer(source).lex()).parseSource();
+        new Analyzer(new plc.project.Scope(null)).visit(ast);
+        program = new CompiledProgram(ast);
+    }
+
+    @Benchmark
+    public Environment.PlcObject visit() {
+        return new Interpreter(new plc.project.Scope(null)).visit(ast);
+    }
+
+    @Benchmark
+    public Environment.PlcObject runCompiled() {
+        return program.run(new Interpreter(new plc.project.Scope(null)).getScope());
+    }
+
+}
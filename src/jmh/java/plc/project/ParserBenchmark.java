@@ -0,0 +1,74 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Parser#parseSource()} over pre-lexed programs from {@link
+ * ProgramGenerator}, with both expression parsers and in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"10", "100"})
+    public int functions;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"4"})
+    public int width;
+
+    private List<Token> tokens;
+    private TokenBuffer buffer;
+
+    @Setup
+    public void setup() {
+        String input = ProgramGenerator.generate(42, functions, depth, width);
+        tokens = new Lexer(input).lex();
+        buffer = new DfaLexer(input).lexBuffer();
+    }
+
+    @Benchmark
+    public Ast.Source parseSource() {
+        return new Parser(tokens).parseSource();
+    }
+
+    @Benchmark
+    public Ast.Source parseSourcePratt() {
+        Parser parser = new Parser(tokens);
+        parser.setPratt(true);
+        return parser.parseSource();
+    }
+
+    @Benchmark
+    public Ast.Source parseSourceInterned() {
+        Parser parser = new Parser(tokens);
+        parser.setInterner(new AstInterner());
+        return parser.parseSource();
+    }
+
+    @Benchmark
+    public Ast.Source parseSourceParallel() {
+        return ParallelParser.parse(buffer, ForkJoinPool.commonPool(), 4096);
+    }
+
+}
@@ -0,0 +1,129 @@
+package plc.project;
+
+import java.util.Random;
+
+/**
+ * Generates synthetic programs for the benchmarks. Output is deterministic for
+ * a given seed and shape, and is always a program the {@link Parser}, {@link
+ * Analyzer}, {@link Interpreter} and {@link Generator} accept, so the same
+ * corpus can be used for every stage of the pipeline.
+ *
+ * Each function declares all of its variables up front (names are unique
+ * across the program) and ends with a {@code RETURN}, then nests {@code
+ * WHILE} loops and {@code IF} statements {@code depth} levels deep around
+ * assignments of expressions with {@code width} operands. Loops run a fixed
+ * number of times and only {@code +} and {@code *} are used on non-negative
+ * values, so evaluation always terminates without errors.
+ */
+public final class ProgramGenerator {
+
+    private static final int ITERATIONS = 3;
+
+    private final Random random;
+    private final int functions;
+    private final int depth;
+    private final int width;
+    private final StringBuilder builder = new StringBuilder();
+
+    public ProgramGenerator(long seed, int functions, int depth, int width) {
+        if(functions < 1 || depth < 0 || width < 1) {
+            throw new IllegalArgumentException("Invalid program shape: " + functions + " functions, depth " + depth + ", width " + width + ".");
+        }
+        this.random = new Random(seed);
+        this.functions = functions;
+        this.depth = depth;
+        this.width = width;
+    }
+
+    public static String generate(long seed, int functions, int depth, int width) {
+        return new ProgramGenerator(seed, functions, depth, width).generate();
+    }
+
+    public String generate() {
+        builder.setLength(0);
+        for(int i = 0; i < functions; i++) {
+            function(i);
+        }
+        main();
+        return builder.toString();
+    }
+
+    private void function(int f) {
+        line(0, "FUN f" + f + "(x" + f + ": Integer, y" + f + ": Integer): Integer DO");
+        line(1, "LET v" + f + " = x" + f + " + y" + f + ";");
+        for(int level = 0; level < depth; level++) {
+            line(1, "LET c" + f + "_" + level + " = 0;");
+        }
+        block(f, 0, 1);
+        line(1, "RETURN v" + f + ";");
+        line(0, "END");
+        line(0, "");
+    }
+
+    private void block(int f, int level, int indent) {
+        assign(f, level, indent);
+        if(level == depth) {
+            return;
+        }
+        String counter = "c" + f + "_" + level;
+        if(random.nextBoolean()) {
+            line(indent, counter + " = 0;");
+            line(indent, "WHILE " + counter + " < " + ITERATIONS + " DO");
+            block(f, level + 1, indent + 1);
+            line(indent + 1, counter + " = " + counter + " + 1;");
+            line(indent, "END");
+        }
+        else {
+            line(indent, "IF v" + f + " > " + random.nextInt(100) + " && x" + f + " != " + random.nextInt(10) + " DO");
+            block(f, level + 1, indent + 1);
+            line(indent, "ELSE");
+            block(f, level + 1, indent + 1);
+            line(indent, "END");
+        }
+    }
+
+    private void assign(int f, int level, int indent) {
+        line(indent, "v" + f + " = v" + f + " + " + expression(f, level, width) + ";");
+    }
+
+    /**
+     * Returns an expression of {@code operands} operands over the parameters,
+     * the loop counters in scope and small literals. Products are grouped so
+     * every group contains a binary expression.
+     */
+    private String expression(int f, int level, int operands) {
+        if(operands == 1) {
+            return operand(f, level);
+        }
+        int left = 1 + random.nextInt(operands - 1);
+        if(random.nextBoolean()) {
+            return expression(f, level, left) + " + " + expression(f, level, operands - left);
+        }
+        return "(" + operand(f, level) + " * " + expression(f, level, operands - 1) + ")";
+    }
+
+    private String operand(int f, int level) {
+        int choice = random.nextInt(level > 0 ? 4 : 3);
+        return switch(choice) {
+            case 0 -> "x" + f;
+            case 1 -> "y" + f;
+            case 2 -> String.valueOf(random.nextInt(10));
+            default -> "c" + f + "_" + random.nextInt(level);
+        };
+    }
+
+    private void main() {
+        line(0, "FUN main(): Integer DO");
+        line(1, "LET total = 0;");
+        for(int i = 0; i < functions; i++) {
+            line(1, "total = total + f" + i + "(" + random.nextInt(10) + ", " + random.nextInt(10) + ");");
+        }
+        line(1, "RETURN total;");
+        line(0, "END");
+    }
+
+    private void line(int indent, String text) {
+        builder.append("    ".repeat(indent)).append(text).append('\n');
+    }
+
+}
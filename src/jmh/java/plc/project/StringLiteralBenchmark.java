@@ -0,0 +1,72 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing a data script made of string literals, a list global of
+ * {@code strings} strings, where one in {@code escaped} has an escape
+ * sequence (0 for none).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringLiteralBenchmark {
+
+    @Param({"10000"})
+    public int strings;
+
+    @Param({"0", "10", "1"})
+    public int escaped;
+
+    private List<Token> tokens;
+    private TokenBuffer buffer;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder("LIST data: String = [");
+        for(int i = 0; i < strings; i++) {
+            builder.append(i == 0 ? "\"" : ",\n    \"");
+            int length = 8 + random.nextInt(56);
+            for(int k = 0; k < length; k++) {
+                builder.append((char) ('a' + random.nextInt(26)));
+            }
+            if(escaped != 0 && i % escaped == 0) {
+                builder.append("\\t\\\"quoted\\\"\\n");
+            }
+            builder.append('"');
+        }
+        builder.append("];");
+        String input = builder.toString();
+        tokens = new DfaLexer(input).lex();
+        buffer = new DfaLexer(input).lexBuffer();
+    }
+
+    @Benchmark
+    public Ast.Source parseTokens() {
+        return new Parser(tokens).parseSource();
+    }
+
+    @Benchmark
+    public Ast.Source parseBuffer() {
+        return new Parser(buffer).parseSource();
+    }
+
+}
@@ -0,0 +1,73 @@
+package plc.project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a tight {@code WHILE} loop reading and assigning locals, run by
+ * the {@link Interpreter} with variables in scopes (unanalyzed) and in frame
+ * slots (analyzed), and as a {@link CompiledProgram}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WhileLoopBenchmark {
+
+    @Param({"1000"})
+    public int iterations;
+
+    private Ast.Source scoped;
+    private Ast.Source analyzed;
+    private CompiledProgram program;
+
+    @Setup
+    public void setup() {
+        String source = String.join("\n",
+                "FUN main(): Integer DO",
+                "    LET i = 0;",
+                "    LET a = 0;",
+                "    LET b = 1;",
+                "    WHILE i < " + iterations + " DO",
+                "        LET t = a + b;",
+                "        a = b;",
+                "        b = t - a;",
+                "        i = i + 1;",
+                "    END",
+                "    RETURN a + b + i;",
+                "END");
+        scoped = new Parser(new Lexer(source).lex()).parseSource();
+        analyzed = new Parser(new Lexer(source).lex()).parseSource();
+        new Analyzer(new plc.project.Scope(null)).visit(analyzed);
+        program = new CompiledProgram(analyzed);
+    }
+
+    @Benchmark
+    public Environment.PlcObject visitScoped() {
+        return new Interpreter(new plc.project.Scope(null)).visit(scoped);
+    }
+
+    @Benchmark
+    public Environment.PlcObject visitFrame() {
+        return new Interpreter(new plc.project.Scope(null)).visit(analyzed);
+    }
+
+    @Benchmark
+    public Environment.PlcObject runCompiled() {
+        return program.run(new Interpreter(new plc.project.Scope(null)).getScope());
+    }
+
+}
@@ -16,6 +16,9 @@ public final class Analyzer implements Ast.Visitor<Void> {
 
     public Scope scope;
     private Ast.Function function;
+    //Next free slot and slots used so far in the frame of the function.
+    private int slots = 0;
+    private int frameSize = 0;
 
     public Analyzer(Scope parent) {
         scope = new Scope(parent);
@@ -79,10 +82,14 @@ public final class Analyzer implements Ast.Visitor<Void> {
         }
 
         Scope parent = scope;
+        Ast.Function outer = function;
         try {
             scope = new Scope(scope);
+            function = ast;
+            slots = 0;
+            frameSize = 0;
             for(int i = 0; i < ast.getParameters().size(); i++) {
-                scope.defineVariable(ast.getParameters().get(i), ast.getParameters().get(i), pTypes.get(i), true, Environment.NIL);
+                allocate(scope.defineVariable(ast.getParameters().get(i), ast.getParameters().get(i), pTypes.get(i), true, Environment.NIL));
             }
 
             for(Ast.Statement s : ast.getStatements()) {
@@ -99,11 +106,26 @@ public final class Analyzer implements Ast.Visitor<Void> {
         }
         finally {
             scope = parent;
+            function = outer;
+            ast.getFunction().setFrameSize(frameSize);
         }
 
         return null;
     }
 
+    /**
+     * Assigns {@code variable}, a local of the function being analyzed, the
+     * next slot of its frame. Slots are reused once the block declaring a
+     * variable ends, so the frame only needs as many slots as the most
+     * variables in scope at once.
+     */
+    private void allocate(Environment.Variable variable) {
+        if(function != null) {
+            variable.setSlot(slots++);
+            frameSize = Math.max(frameSize, slots);
+        }
+    }
+
     @Override
     public Void visit(Ast.Statement.Expression ast) {
          switch(ast.getExpression()) {
@@ -135,12 +157,13 @@ public final class Analyzer implements Ast.Visitor<Void> {
         }
 
         if(!(type == null) && ast.getValue().isPresent()) {
-            requireAssignable(type, ast.getValue().get().getType());}
+            requireAssignable(type, ast.getValue().get().getType());
+        }
         else if(type == null) {
-            ast.setVariable(scope.defineVariable(ast.getName(), ast.getName(), ast.getValue().get().getType(), true, Environment.NIL));
-        } else {
-            ast.setVariable(scope.defineVariable(ast.getName(), ast.getName(), type, true, Environment.NIL));
+            type = ast.getValue().get().getType();
         }
+        ast.setVariable(scope.defineVariable(ast.getName(), ast.getName(), type, true, Environment.NIL));
+        allocate(ast.getVariable());
 
         return null;
         // throw new UnsupportedOperationException();  // TODO
@@ -167,6 +190,7 @@ public final class Analyzer implements Ast.Visitor<Void> {
             throw new RuntimeException("'If' statement must be followed by a then statement(s).");
         }
 
+        int slots = this.slots;
         try {
             scope = new Scope(scope);
             for(Ast.Statement s : ast.getThenStatements()) {
@@ -174,6 +198,7 @@ public final class Analyzer implements Ast.Visitor<Void> {
             }
         } finally {
             scope = scope.getParent();
+            this.slots = slots;
         }
 
         try{
@@ -183,6 +208,7 @@ public final class Analyzer implements Ast.Visitor<Void> {
             }
         } finally {
             scope = scope.getParent();
+            this.slots = slots;
         }
 
         return null;
@@ -210,6 +236,7 @@ public final class Analyzer implements Ast.Visitor<Void> {
 
     @Override
     public Void visit(Ast.Statement.Case ast) {
+        int slots = this.slots;
         try {
             scope = new Scope(scope);
             for(Ast.Statement s : ast.getStatements()) {
@@ -217,6 +244,7 @@ public final class Analyzer implements Ast.Visitor<Void> {
             }
         } finally {
             scope = scope.getParent();
+            this.slots = slots;
         }
 
         return null;
@@ -226,6 +254,7 @@ public final class Analyzer implements Ast.Visitor<Void> {
     public Void visit(Ast.Statement.While ast) {
         visit(ast.getCondition());
         requireAssignable(ast.getCondition().getType(), Environment.Type.BOOLEAN);
+        int slots = this.slots;
         try{
             scope = new Scope(scope);
             for(Ast.Statement s : ast.getStatements()) {
@@ -234,6 +263,7 @@ public final class Analyzer implements Ast.Visitor<Void> {
 
         } finally {
             scope = scope.getParent();
+            this.slots = slots;
         }
 
         return null;
@@ -82,6 +82,10 @@ public abstract class Ast {
             return value;
         }
 
+        public boolean hasVariable() {
+            return variable != null;
+        }
+
         public Environment.Variable getVariable() {
             if (variable == null) {
                 throw new IllegalStateException("variable is uninitialized");
@@ -162,6 +166,10 @@ public abstract class Ast {
             return statements;
         }
 
+        public boolean hasFunction() {
+            return function != null;
+        }
+
         public Environment.Function getFunction() {
             if (function == null) {
                 throw new IllegalStateException("function is uninitialized");
@@ -258,6 +266,10 @@ public abstract class Ast {
                 return value;
             }
 
+            public boolean hasVariable() {
+                return variable != null;
+            }
+
             public Environment.Variable getVariable() {
                 if (variable == null) {
                     throw new IllegalStateException("variable is uninitialized");
@@ -672,6 +684,10 @@ public abstract class Ast {
                 return name;
             }
 
+            public boolean hasVariable() {
+                return variable != null;
+            }
+
             public Environment.Variable getVariable() {
                 if (variable == null) {
                     throw new IllegalStateException("variable is uninitialized");
@@ -727,6 +743,10 @@ public abstract class Ast {
                 return arguments;
             }
 
+            public boolean hasFunction() {
+                return function != null;
+            }
+
             public Environment.Function getFunction() {
                 if (function == null) {
                     throw new IllegalStateException("function is uninitialized");
@@ -0,0 +1,374 @@
+package plc.project;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A directory of serialized {@link Ast.Source}s keyed by the SHA-256 hash of
+ * their source, so loading an unchanged source skips the lexer and parser,
+ * and for analyzed entries the {@link Analyzer} as well.
+ *
+ * An entry is a header (magic, format version and whether it is analyzed)
+ * followed by the {@link FlatAst} of the source. Analyzed entries then hold
+ * the {@link Environment.Type}s, {@link Environment.Variable}s and {@link
+ * Environment.Function}s set by the analyzer: a table of each, by name, and
+ * an index into the tables for every annotated node in pre-order. Types are
+ * restored with {@link Environment#getType(String)}. Variables and functions
+ * are restored with their names, types and mutability, which is everything
+ * the {@link Generator} uses, and with the frame slots and sizes the {@link
+ * Interpreter} uses; variables have the value {@link Environment#NIL} and
+ * functions cannot be invoked, as the interpreter defines its own when it
+ * runs.
+ *
+ * Entries are written to a temporary file and moved into place, so
+ * concurrent processes sharing a directory only ever see complete entries.
+ * An entry which cannot be read (truncated, corrupt or from another format
+ * version) is treated as missing and replaced.
+ */
+public final class AstCache {
+
+    private static final int MAGIC = 0x504C4341; //PLCA
+    private static final int VERSION = 2;
+
+    private final Path directory;
+
+    public AstCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the AST of {@code source}, from the cache if present or else by
+     * lexing and parsing it and storing the result.
+     */
+    public Ast.Source parse(String source) {
+        String key = key(source);
+        Path path = getPath(key, false);
+        Ast.Source ast = load(path);
+        if(ast == null) {
+            ast = parser(source).parseSource();
+            store(path, ast, false);
+        }
+        return ast;
+    }
+
+    /**
+     * Returns the analyzed AST of {@code source}, from the cache if present
+     * or else by lexing, parsing and analyzing it and storing the result.
+     */
+    public Ast.Source analyze(String source) {
+        String key = key(source);
+        Path path = getPath(key, true);
+        Ast.Source ast = load(path);
+        if(ast == null) {
+            ast = parser(source).parseSource();
+            new Analyzer(new Scope(null)).visit(ast);
+            store(path, ast, true);
+        }
+        return ast;
+    }
+
+    /**
+     * Returns a stack-safe parser of {@code source}, so every source the
+     * parser accepts, however deeply nested, can be cached.
+     */
+    private static Parser parser(String source) {
+        Parser parser = new Parser(new DfaLexer(source).lex());
+        parser.setStackSafe(true);
+        return parser;
+    }
+
+    /**
+     * Returns the path of the entry for {@code key}.
+     */
+    public Path getPath(String key, boolean analyzed) {
+        return directory.resolve(key + (analyzed ? ".analyzed.ast" : ".ast"));
+    }
+
+    /**
+     * Returns the cache key of {@code source}, the hex SHA-256 hash of its
+     * UTF-8 bytes.
+     */
+    public static String key(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is unavailable.", e);
+        }
+    }
+
+    private Ast.Source load(Path path) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            return read(ByteBuffer.wrap(bytes));
+        } catch (IOException | RuntimeException e) {
+            return null; //a corrupt entry is a miss
+        }
+    }
+
+    private void store(Path path, Ast.Source ast, boolean analyzed) {
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temporary)) {
+                    write(ast, analyzed, out);
+                }
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes {@code ast} to {@code out}, including the results of analysis if
+     * {@code analyzed}, in which case every node must have been analyzed.
+     */
+    public static void write(Ast.Source ast, boolean analyzed, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeBoolean(analyzed);
+        FlatAst.of(ast).write(data);
+        if(analyzed) {
+            new AnnotationWriter().write(ast, data);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads an AST written by {@link #write(Ast.Source, boolean,
+     * OutputStream)} from the position of {@code in}, which is analyzed if it
+     * was written analyzed.
+     */
+    public static Ast.Source read(ByteBuffer in) throws IOException {
+        try {
+            if(in.getInt() != MAGIC) {
+                throw new IOException("Not a serialized AST.");
+            }
+            int version = in.get();
+            if(version != VERSION) {
+                throw new IOException("Unsupported format version " + version + ".");
+            }
+            boolean analyzed = in.get() != 0;
+            Ast.Source ast = FlatAst.read(in).toAst();
+            if(analyzed) {
+                new AnnotationReader().read(ast, in);
+            }
+            return ast;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Unexpected end of input.", e);
+        }
+    }
+
+    /**
+     * Calls {@code action} on {@code ast} and every node below it in
+     * pre-order, which is the order annotations are written and read in. The
+     * nodes still to be visited are kept on a stack rather than in recursive
+     * calls, so any depth of nesting can be walked.
+     */
+    static void walk(Ast ast, Consumer<Ast> action) {
+        Deque<Ast> stack = new ArrayDeque<>();
+        stack.push(ast);
+        while(!stack.isEmpty()) {
+            Ast node = stack.pop();
+            action.accept(node);
+            List<Ast> children = FlatAst.children(node);
+            for(int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+    }
+
+    /**
+     * Collects the types, variables and functions of an analyzed AST into
+     * tables, shared by every node referencing them, and the table index of
+     * every annotated node.
+     */
+    private static final class AnnotationWriter {
+
+        private final Map<String, Integer> types = new LinkedHashMap<>();
+        private final Map<Environment.Variable, Integer> variables = new IdentityHashMap<>();
+        private final List<Environment.Variable> variableList = new ArrayList<>();
+        private final Map<Environment.Function, Integer> functions = new IdentityHashMap<>();
+        private final List<Environment.Function> functionList = new ArrayList<>();
+        private int[] indices = new int[256];
+        private int size = 0;
+
+        private void write(Ast.Source ast, DataOutput out) throws IOException {
+            walk(ast, node -> {
+                switch(node) {
+                    case Ast.Global global -> add(variable(global.getVariable()));
+                    case Ast.Function function -> add(function(function.getFunction()));
+                    case Ast.Statement.Declaration declaration -> add(variable(declaration.getVariable()));
+                    case Ast.Expression.Access access -> add(variable(access.getVariable()));
+                    case Ast.Expression.Function function -> add(function(function.getFunction()));
+                    case Ast.Expression expression -> add(type(expression.getType()));
+                    default -> {}
+                }
+            });
+
+            FlatAst.writeInt(out, types.size());
+            for(String name : types.keySet()) {
+                FlatAst.writeString(out, name);
+            }
+            FlatAst.writeInt(out, variableList.size());
+            for(Environment.Variable variable : variableList) {
+                FlatAst.writeString(out, variable.getName());
+                FlatAst.writeString(out, variable.getJvmName());
+                FlatAst.writeInt(out, types.get(variable.getType().getName()));
+                out.writeBoolean(variable.getMutable());
+                FlatAst.writeInt(out, variable.getSlot());
+            }
+            FlatAst.writeInt(out, functionList.size());
+            for(Environment.Function function : functionList) {
+                FlatAst.writeString(out, function.getName());
+                FlatAst.writeString(out, function.getJvmName());
+                FlatAst.writeInt(out, function.getParameterTypes().size());
+                for(Environment.Type type : function.getParameterTypes()) {
+                    FlatAst.writeInt(out, types.get(type.getName()));
+                }
+                FlatAst.writeInt(out, types.get(function.getReturnType().getName()));
+                FlatAst.writeInt(out, function.getFrameSize());
+            }
+            FlatAst.writeInt(out, size);
+            for(int i = 0; i < size; i++) {
+                FlatAst.writeInt(out, indices[i]);
+            }
+        }
+
+        private int type(Environment.Type type) {
+            return types.computeIfAbsent(type.getName(), name -> types.size());
+        }
+
+        private int variable(Environment.Variable variable) {
+            type(variable.getType());
+            return variables.computeIfAbsent(variable, v -> {
+                variableList.add(v);
+                return variableList.size() - 1;
+            });
+        }
+
+        private int function(Environment.Function function) {
+            function.getParameterTypes().forEach(this::type);
+            type(function.getReturnType());
+            return functions.computeIfAbsent(function, f -> {
+                functionList.add(f);
+                return functionList.size() - 1;
+            });
+        }
+
+        private void add(int index) {
+            if(size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+            }
+            indices[size++] = index;
+        }
+
+    }
+
+    /**
+     * Restores the tables written by {@link AnnotationWriter} and sets them on
+     * the nodes of an AST read back from the same entry.
+     */
+    private static final class AnnotationReader {
+
+        private Environment.Type[] types;
+        private Environment.Variable[] variables;
+        private Environment.Function[] functions;
+        private int[] indices;
+        private int cursor = 0;
+
+        private void read(Ast.Source ast, ByteBuffer in) throws IOException {
+            types = new Environment.Type[FlatAst.readLength(in)];
+            for(int i = 0; i < types.length; i++) {
+                types[i] = Environment.getType(FlatAst.readString(in));
+            }
+            variables = new Environment.Variable[FlatAst.readLength(in)];
+            for(int i = 0; i < variables.length; i++) {
+                String name = FlatAst.readString(in);
+                String jvmName = FlatAst.readString(in);
+                Environment.Type type = types[FlatAst.readInt(in)];
+                boolean mutable = in.get() != 0;
+                variables[i] = new Environment.Variable(name, jvmName, type, mutable, Environment.NIL);
+                variables[i].setSlot(FlatAst.readInt(in));
+            }
+            functions = new Environment.Function[FlatAst.readLength(in)];
+            for(int i = 0; i < functions.length; i++) {
+                String name = FlatAst.readString(in);
+                String jvmName = FlatAst.readString(in);
+                List<Environment.Type> parameterTypes = new ArrayList<>();
+                int arity = FlatAst.readLength(in);
+                for(int j = 0; j < arity; j++) {
+                    parameterTypes.add(types[FlatAst.readInt(in)]);
+                }
+                Environment.Type returnType = types[FlatAst.readInt(in)];
+                functions[i] = new Environment.Function(name, jvmName, parameterTypes, returnType, arguments -> {
+                    throw new UnsupportedOperationException("Function " + name + " was restored from a cache entry and cannot be invoked.");
+                });
+                functions[i].setFrameSize(FlatAst.readInt(in));
+            }
+            indices = new int[FlatAst.readLength(in)];
+            for(int i = 0; i < indices.length; i++) {
+                indices[i] = FlatAst.readInt(in);
+            }
+
+            walk(ast, node -> {
+                switch(node) {
+                    case Ast.Global global -> global.setVariable(variables[next()]);
+                    case Ast.Function function -> function.setFunction(functions[next()]);
+                    case Ast.Statement.Declaration declaration -> declaration.setVariable(variables[next()]);
+                    case Ast.Expression.Access access -> access.setVariable(variables[next()]);
+                    case Ast.Expression.Function function -> function.setFunction(functions[next()]);
+                    case Ast.Expression.Literal literal -> literal.setType(types[next()]);
+                    case Ast.Expression.Group group -> group.setType(types[next()]);
+                    case Ast.Expression.Binary binary -> binary.setType(types[next()]);
+                    case Ast.Expression.PlcList list -> list.setType(types[next()]);
+                    default -> {}
+                }
+            });
+            if(cursor != indices.length) {
+                throw new IOException("Expected " + indices.length + " annotations, found " + cursor + ".");
+            }
+        }
+
+        private int next() {
+            return indices[cursor++];
+        }
+
+    }
+
+}
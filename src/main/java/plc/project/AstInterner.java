@@ -0,0 +1,291 @@
+package plc.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Shares structurally identical expression subtrees (hash-consing), so a
+ * program repeating the same literals and expressions holds one node for
+ * each instead of one per occurrence.
+ *
+ * Expressions are mutable once analyzed: the {@link Analyzer} sets the type of
+ * literals, groups, binaries and lists and the variable or function of
+ * accesses and calls. Sharing is therefore only done where every occurrence
+ * would be analyzed the same way:
+ *
+ * <ul>
+ *     <li>Before analysis, {@link #intern(Ast.Expression)} (used by the
+ *     {@link Parser} through {@link Parser#setInterner(AstInterner)}) only
+ *     shares constant expressions: literals, and groups and binaries of
+ *     constants. Their types depend only on their structure, so analyzing a
+ *     shared node again sets the same type. Lists are never shared, as a
+ *     list is typed from the declared type of the global holding it.</li>
+ *     <li>After analysis, {@link #internAnalyzed(Ast.Source)} shares every
+ *     expression, keyed on its structure and on the type, variable or
+ *     function the analyzer set on it, so accesses to the same variable and
+ *     calls of the same function are shared too.</li>
+ * </ul>
+ *
+ * An interner is not thread safe. Nodes it returns may be shared with other
+ * trees interned by the same interner, which may already have been analyzed.
+ */
+public final class AstInterner {
+
+    private static final int LITERAL = 0, GROUP = 1, BINARY = 2, ACCESS = 3, CALL = 4, LIST = 5;
+    private static final Ast.Expression[] NONE = {};
+
+    private final Map<Key, Ast.Expression> table = new HashMap<>();
+    private final Set<Ast.Expression> constants = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Returns the number of distinct subtrees interned so far.
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Returns the shared node equal to {@code expression}, an unanalyzed
+     * expression whose children were returned by this method, if it is
+     * constant, or else {@code expression} itself.
+     */
+    public Ast.Expression intern(Ast.Expression expression) {
+        Key key = switch(expression) {
+            case Ast.Expression.Literal literal -> new Key(LITERAL, literal.getLiteral(), NONE, null);
+            case Ast.Expression.Group group -> constant(GROUP, null, group.getExpression());
+            case Ast.Expression.Binary binary -> constant(BINARY, binary.getOperator(), binary.getLeft(), binary.getRight());
+            default -> null;
+        };
+        if(key == null) {
+            return expression;
+        }
+        Ast.Expression shared = table.putIfAbsent(key, expression);
+        if(shared != null) {
+            return shared;
+        }
+        constants.add(expression);
+        return expression;
+    }
+
+    private Key constant(int kind, Object value, Ast.Expression... children) {
+        for(Ast.Expression child : children) {
+            if(!constants.contains(child)) {
+                return null;
+            }
+        }
+        return new Key(kind, value, children, null);
+    }
+
+    /**
+     * Returns a copy of the analyzed {@code source} in which identical
+     * expression subtrees, including their types, variables and functions,
+     * are the same node. Statements are copied along with their variables and
+     * functions; nodes whose children are unchanged are reused as they are.
+     */
+    public Ast.Source internAnalyzed(Ast.Source source) {
+        List<Ast.Global> globals = new ArrayList<>();
+        for(Ast.Global global : source.getGlobals()) {
+            Ast.Global copy = new Ast.Global(global.getName(), global.getTypeName(), global.getMutable(), global.getValue().map(this::analyzed));
+            copy.setVariable(global.getVariable());
+            globals.add(copy);
+        }
+        List<Ast.Function> functions = new ArrayList<>();
+        for(Ast.Function function : source.getFunctions()) {
+            Ast.Function copy = new Ast.Function(function.getName(), function.getParameters(), function.getParameterTypeNames(), function.getReturnTypeName(), statements(function.getStatements()));
+            copy.setFunction(function.getFunction());
+            functions.add(copy);
+        }
+        return new Ast.Source(globals, functions);
+    }
+
+    private List<Ast.Statement> statements(List<Ast.Statement> statements) {
+        List<Ast.Statement> copies = new ArrayList<>(statements.size());
+        for(Ast.Statement statement : statements) {
+            copies.add(statement(statement));
+        }
+        return copies;
+    }
+
+    private Ast.Statement statement(Ast.Statement ast) {
+        return switch(ast) {
+            case Ast.Statement.Expression statement -> new Ast.Statement.Expression(analyzed(statement.getExpression()));
+            case Ast.Statement.Declaration statement -> {
+                Ast.Statement.Declaration copy = new Ast.Statement.Declaration(statement.getName(), statement.getTypeName(), statement.getValue().map(this::analyzed));
+                copy.setVariable(statement.getVariable());
+                yield copy;
+            }
+            case Ast.Statement.Assignment statement -> new Ast.Statement.Assignment(analyzed(statement.getReceiver()), analyzed(statement.getValue()));
+            case Ast.Statement.If statement -> new Ast.Statement.If(analyzed(statement.getCondition()), statements(statement.getThenStatements()), statements(statement.getElseStatements()));
+            case Ast.Statement.Switch statement -> {
+                List<Ast.Statement.Case> cases = new ArrayList<>(statement.getCases().size());
+                for(Ast.Statement.Case c : statement.getCases()) {
+                    cases.add((Ast.Statement.Case) statement(c));
+                }
+                yield new Ast.Statement.Switch(analyzed(statement.getCondition()), cases);
+            }
+            case Ast.Statement.Case statement -> new Ast.Statement.Case(statement.getValue().map(this::analyzed), statements(statement.getStatements()));
+            case Ast.Statement.While statement -> new Ast.Statement.While(analyzed(statement.getCondition()), statements(statement.getStatements()));
+            case Ast.Statement.Return statement -> new Ast.Statement.Return(analyzed(statement.getValue()));
+            default -> throw new IllegalArgumentException("Unknown statement " + ast.getClass().getName() + ".");
+        };
+    }
+
+    private Ast.Expression analyzed(Ast.Expression ast) {
+        switch(ast) {
+            case Ast.Expression.Literal expression -> {
+                return share(new Key(LITERAL, expression.getLiteral(), NONE, expression.getType()), expression);
+            }
+            case Ast.Expression.Group expression -> {
+                Ast.Expression inner = analyzed(expression.getExpression());
+                Key key = new Key(GROUP, null, new Ast.Expression[] {inner}, expression.getType());
+                Ast.Expression shared = table.get(key);
+                if(shared != null) {
+                    return shared;
+                }
+                if(inner != expression.getExpression()) {
+                    Ast.Expression.Group copy = new Ast.Expression.Group(inner);
+                    copy.setType(expression.getType());
+                    expression = copy;
+                }
+                return share(key, expression);
+            }
+            case Ast.Expression.Binary expression -> {
+                Ast.Expression left = analyzed(expression.getLeft());
+                Ast.Expression right = analyzed(expression.getRight());
+                Key key = new Key(BINARY, expression.getOperator(), new Ast.Expression[] {left, right}, expression.getType());
+                Ast.Expression shared = table.get(key);
+                if(shared != null) {
+                    return shared;
+                }
+                if(left != expression.getLeft() || right != expression.getRight()) {
+                    Ast.Expression.Binary copy = new Ast.Expression.Binary(expression.getOperator(), left, right);
+                    copy.setType(expression.getType());
+                    expression = copy;
+                }
+                return share(key, expression);
+            }
+            case Ast.Expression.Access expression -> {
+                Optional<Ast.Expression> offset = expression.getOffset().map(this::analyzed);
+                Key key = new Key(ACCESS, expression.getName(), offset.map(o -> new Ast.Expression[] {o}).orElse(NONE), expression.getVariable());
+                Ast.Expression shared = table.get(key);
+                if(shared != null) {
+                    return shared;
+                }
+                if(offset.isPresent() && offset.get() != expression.getOffset().get()) {
+                    Ast.Expression.Access copy = new Ast.Expression.Access(offset, expression.getName());
+                    copy.setVariable(expression.getVariable());
+                    expression = copy;
+                }
+                return share(key, expression);
+            }
+            case Ast.Expression.Function expression -> {
+                Ast.Expression[] arguments = analyzed(expression.getArguments());
+                Key key = new Key(CALL, expression.getName(), arguments, expression.getFunction());
+                Ast.Expression shared = table.get(key);
+                if(shared != null) {
+                    return shared;
+                }
+                if(changed(arguments, expression.getArguments())) {
+                    Ast.Expression.Function copy = new Ast.Expression.Function(expression.getName(), new ArrayList<>(Arrays.asList(arguments)));
+                    copy.setFunction(expression.getFunction());
+                    expression = copy;
+                }
+                return share(key, expression);
+            }
+            case Ast.Expression.PlcList expression -> {
+                Ast.Expression[] values = analyzed(expression.getValues());
+                Key key = new Key(LIST, null, values, expression.getType());
+                Ast.Expression shared = table.get(key);
+                if(shared != null) {
+                    return shared;
+                }
+                if(changed(values, expression.getValues())) {
+                    Ast.Expression.PlcList copy = new Ast.Expression.PlcList(new ArrayList<>(Arrays.asList(values)));
+                    copy.setType(expression.getType());
+                    expression = copy;
+                }
+                return share(key, expression);
+            }
+            default -> throw new IllegalArgumentException("Unknown expression " + ast.getClass().getName() + ".");
+        }
+    }
+
+    private Ast.Expression[] analyzed(List<Ast.Expression> expressions) {
+        Ast.Expression[] shared = new Ast.Expression[expressions.size()];
+        for(int i = 0; i < shared.length; i++) {
+            shared[i] = analyzed(expressions.get(i));
+        }
+        return shared;
+    }
+
+    private static boolean changed(Ast.Expression[] shared, List<Ast.Expression> expressions) {
+        for(int i = 0; i < shared.length; i++) {
+            if(shared[i] != expressions.get(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Ast.Expression share(Key key, Ast.Expression expression) {
+        Ast.Expression shared = table.putIfAbsent(key, expression);
+        return shared != null ? shared : expression;
+    }
+
+    /**
+     * The identity of a subtree: its kind, operator, name or literal value
+     * (compared with equals), its children (already shared, so compared by
+     * reference) and the type, variable or function set by the analyzer, if
+     * any (compared by reference).
+     */
+    private static final class Key {
+
+        private final int kind;
+        private final Object value;
+        private final Ast.Expression[] children;
+        private final Object annotation;
+        private final int hash;
+
+        private Key(int kind, Object value, Ast.Expression[] children, Object annotation) {
+            this.kind = kind;
+            this.value = value;
+            this.children = children;
+            this.annotation = annotation;
+            int hash = 31 * kind + Objects.hashCode(value);
+            for(Ast.Expression child : children) {
+                hash = 31 * hash + System.identityHashCode(child);
+            }
+            this.hash = 31 * hash + System.identityHashCode(annotation);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(!(obj instanceof Key key) || hash != key.hash || kind != key.kind
+                    || annotation != key.annotation || children.length != key.children.length
+                    || !Objects.equals(value, key.value)) {
+                return false;
+            }
+            for(int i = 0; i < children.length; i++) {
+                if(children[i] != key.children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
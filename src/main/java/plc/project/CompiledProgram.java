@@ -0,0 +1,602 @@
+package plc.project;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * An analyzed {@link Ast.Source} compiled once into a tree of closures, the
+ * execution mode of the {@link Interpreter} enabled by {@link
+ * Interpreter#setCompiled(boolean)}.
+ *
+ * Compilation resolves everything that does not depend on runtime values:
+ * each node becomes a closure specialized for its kind, each binary operator
+ * is specialized for the types the {@link Analyzer} set on its operands, and
+ * each call of a function declared in the source is linked straight to its
+ * compiled body. Running the program is then a walk over the closures with no
+ * visitor dispatch or type probing. Expressions evaluate to plain values
+ * ({@link Environment#NIL} is its value), which are only wrapped in {@link
+ * Environment.PlcObject}s when stored in a {@link Scope} or passed to a
+ * function defined outside the source.
+ *
+ * Each call runs in a frame, an array holding the parameters and locals of
+ * the function in the slots the analyzer assigned them, so blocks need no
+ * scope of their own. Globals and builtin functions are still looked up in
+ * the {@link Scope} of the run. The semantics are those
+ * the analyzer checks, which differ from the tree-walking interpreter where it
+ * is incomplete: {@code RETURN} leaves the function from anywhere in its body,
+ * the last statement of a function runs even if it is not a {@code RETURN},
+ * {@code +} on a {@code String} concatenates operands of any type, {@code ^}
+ * is an {@code Integer} power, and a {@code SWITCH} condition is evaluated
+ * once.
+ *
+ * Integers are {@link Long}s within the program, with arithmetic on longs
+ * that falls back to {@link BigInteger} only when a result overflows, and
+ * are converted to and from {@link BigInteger} wherever values enter or
+ * leave it: globals, lists, functions defined outside the source and the
+ * result of {@code main}.
+ *
+ * A program may be run any number of times, but not concurrently.
+ */
+public final class CompiledProgram {
+
+    private static final Object NIL = Environment.NIL.getValue();
+    private static final CompiledExpression[] NONE = {};
+    private static final Object[] NO_FRAME = {};
+
+    //Shared by all wrapped values, instead of the type and scope allocated by
+    //Environment.create for each one.
+    private static final Environment.Type UNKNOWN = new Environment.Type("Unknown", "Unknown", new Scope(null));
+
+    private final List<Ast.Global> globals;
+    private final CompiledExpression[] initializers;
+    private final Map<String, CompiledFunction> functions = new LinkedHashMap<>();
+
+    //The scope of the current run, holding globals and builtin functions.
+    private Scope scope;
+
+    /**
+     * Compiles {@code source}, which must have been analyzed.
+     */
+    public CompiledProgram(Ast.Source source) {
+        this.globals = source.getGlobals();
+        this.initializers = new CompiledExpression[globals.size()];
+        for(Ast.Function function : source.getFunctions()) {
+            functions.put(function.getName() + "/" + function.getParameters().size(), new CompiledFunction(function));
+        }
+        for(int i = 0; i < initializers.length; i++) {
+            initializers[i] = globals.get(i).getValue().map(this::compile).orElse(null);
+        }
+        for(CompiledFunction function : functions.values()) {
+            function.body = compileStatements(function.ast.getStatements());
+        }
+    }
+
+    /**
+     * Runs the program as {@link Interpreter#visit(Ast.Source)} does: defines
+     * its globals and functions in {@code scope}, which must provide any
+     * builtin functions it calls, then invokes {@code main/0} and returns its
+     * result, or {@link Environment#NIL}.
+     */
+    public Environment.PlcObject run(Scope scope) {
+        this.scope = scope;
+        for(int i = 0; i < initializers.length; i++) {
+            Ast.Global global = globals.get(i);
+            Object value = initializers[i] != null ? initializers[i].evaluate(NO_FRAME) : NIL;
+            scope.defineVariable(global.getName(), global.getMutable(), wrap(value));
+        }
+        for(CompiledFunction function : functions.values()) {
+            scope.defineFunction(function.ast.getName(), function.ast.getParameters().size(), args -> {
+                Object[] values = new Object[function.frameSize];
+                for(int i = 0; i < args.size(); i++) {
+                    values[i] = internal(args.get(i).getValue());
+                }
+                return wrap(function.invoke(values));
+            });
+        }
+        Environment.PlcObject result = scope.lookupFunction("main", 0).invoke(new ArrayList<>());
+        if(!result.getValue().equals(NIL)) {
+            return result;
+        }
+        return Environment.NIL;
+    }
+
+    private CompiledStatement[] compileStatements(List<Ast.Statement> statements) {
+        CompiledStatement[] compiled = new CompiledStatement[statements.size()];
+        for(int i = 0; i < compiled.length; i++) {
+            compiled[i] = compile(statements.get(i));
+        }
+        return compiled;
+    }
+
+    private CompiledStatement compile(Ast.Statement ast) {
+        switch(ast) {
+            case Ast.Statement.Expression statement -> {
+                CompiledExpression expression = compile(statement.getExpression());
+                return frame -> {
+                    expression.evaluate(frame);
+                    return null;
+                };
+            }
+            case Ast.Statement.Declaration statement -> {
+                int slot = statement.getVariable().getSlot();
+                CompiledExpression value = statement.getValue().map(this::compile).orElse(frame -> NIL);
+                return frame -> {
+                    frame[slot] = value.evaluate(frame);
+                    return null;
+                };
+            }
+            case Ast.Statement.Assignment statement -> {
+                if(!(statement.getReceiver() instanceof Ast.Expression.Access receiver)) {
+                    throw new RuntimeException("Invalid assignment receiver.");
+                }
+                String name = receiver.getName();
+                int slot = slot(receiver);
+                CompiledExpression value = compile(statement.getValue());
+                if(receiver.getOffset().isPresent()) {
+                    CompiledExpression offset = compile(receiver.getOffset().get());
+                    if(slot >= 0) {
+                        return frame -> {
+                            @SuppressWarnings("unchecked")
+                            List<Object> list = (List<Object>) frame[slot];
+                            list.set(((Number) offset.evaluate(frame)).intValue(), external(value.evaluate(frame)));
+                            return null;
+                        };
+                    }
+                    return frame -> {
+                        @SuppressWarnings("unchecked")
+                        List<Object> list = (List<Object>) mutable(scope.lookupVariable(name)).getValue().getValue();
+                        list.set(((Number) offset.evaluate(frame)).intValue(), external(value.evaluate(frame)));
+                        return null;
+                    };
+                }
+                if(slot >= 0) {
+                    return frame -> {
+                        frame[slot] = value.evaluate(frame);
+                        return null;
+                    };
+                }
+                return frame -> {
+                    mutable(scope.lookupVariable(name)).setValue(wrap(value.evaluate(frame)));
+                    return null;
+                };
+            }
+            case Ast.Statement.If statement -> {
+                CompiledExpression condition = compile(statement.getCondition());
+                CompiledStatement[] thenStatements = compileStatements(statement.getThenStatements());
+                CompiledStatement[] elseStatements = compileStatements(statement.getElseStatements());
+                return frame -> execute((Boolean) condition.evaluate(frame) ? thenStatements : elseStatements, frame);
+            }
+            case Ast.Statement.Switch statement -> {
+                CompiledExpression condition = compile(statement.getCondition());
+                List<Ast.Statement.Case> cases = statement.getCases();
+                CompiledExpression[] values = new CompiledExpression[cases.size()];
+                CompiledStatement[][] bodies = new CompiledStatement[cases.size()][];
+                for(int i = 0; i < values.length; i++) {
+                    values[i] = cases.get(i).getValue().map(this::compile).orElse(null);
+                    bodies[i] = compileStatements(cases.get(i).getStatements());
+                }
+                return frame -> {
+                    Object value = condition.evaluate(frame);
+                    for(int i = 0; i < values.length; i++) {
+                        if(values[i] == null || value.equals(values[i].evaluate(frame))) {
+                            return execute(bodies[i], frame);
+                        }
+                    }
+                    return null;
+                };
+            }
+            case Ast.Statement.While statement -> {
+                CompiledExpression condition = compile(statement.getCondition());
+                CompiledStatement[] body = compileStatements(statement.getStatements());
+                return frame -> {
+                    while((Boolean) condition.evaluate(frame)) {
+                        Object result = execute(body, frame);
+                        if(result != null) {
+                            return result;
+                        }
+                    }
+                    return null;
+                };
+            }
+            case Ast.Statement.Return statement -> {
+                CompiledExpression value = compile(statement.getValue());
+                return value::evaluate;
+            }
+            default -> throw new AssertionError("Unimplemented statement type: " + ast.getClass().getName() + ".");
+        }
+    }
+
+    private CompiledExpression compile(Ast.Expression ast) {
+        switch(ast) {
+            case Ast.Expression.Literal expression -> {
+                Object value = expression.getLiteral() != null ? internal(expression.getLiteral()) : NIL;
+                return frame -> value;
+            }
+            case Ast.Expression.Group expression -> {
+                return compile(expression.getExpression());
+            }
+            case Ast.Expression.Binary expression -> {
+                return compile(expression);
+            }
+            case Ast.Expression.Access expression -> {
+                String name = expression.getName();
+                int slot = slot(expression);
+                if(expression.getOffset().isPresent()) {
+                    CompiledExpression offset = compile(expression.getOffset().get());
+                    if(slot >= 0) {
+                        return frame -> internal(((List<?>) frame[slot]).get(((Number) offset.evaluate(frame)).intValue()));
+                    }
+                    return frame -> internal(((List<?>) scope.lookupVariable(name).getValue().getValue()).get(((Number) offset.evaluate(frame)).intValue()));
+                }
+                if(slot >= 0) {
+                    return frame -> frame[slot];
+                }
+                return frame -> internal(scope.lookupVariable(name).getValue().getValue());
+            }
+            case Ast.Expression.Function expression -> {
+                CompiledExpression[] arguments = compile(expression.getArguments());
+                CompiledFunction function = functions.get(expression.getName() + "/" + arguments.length);
+                if(function != null) {
+                    return frame -> function.invoke(evaluate(arguments, frame, function.frameSize));
+                }
+                return new BuiltinCall(expression.getName(), arguments);
+            }
+            case Ast.Expression.PlcList expression -> {
+                CompiledExpression[] values = compile(expression.getValues());
+                return frame -> {
+                    List<Object> list = new ArrayList<>(values.length);
+                    for(CompiledExpression value : values) {
+                        list.add(external(value.evaluate(frame)));
+                    }
+                    return list;
+                };
+            }
+            default -> throw new AssertionError("Unimplemented expression type: " + ast.getClass().getName() + ".");
+        }
+    }
+
+    private CompiledExpression[] compile(List<Ast.Expression> expressions) {
+        if(expressions.isEmpty()) {
+            return NONE;
+        }
+        CompiledExpression[] compiled = new CompiledExpression[expressions.size()];
+        for(int i = 0; i < compiled.length; i++) {
+            compiled[i] = compile(expressions.get(i));
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiles a binary expression into a closure for its operator and the
+     * types of its operands.
+     */
+    private CompiledExpression compile(Ast.Expression.Binary ast) {
+        CompiledExpression left = compile(ast.getLeft());
+        CompiledExpression right = compile(ast.getRight());
+        Environment.Type type = ast.getLeft().getType();
+        boolean integer = type.equals(Environment.Type.INTEGER);
+        boolean decimal = type.equals(Environment.Type.DECIMAL);
+        switch(ast.getOperator()) {
+            case "&&" -> {
+                return frame -> (Boolean) left.evaluate(frame) && (Boolean) right.evaluate(frame);
+            }
+            case "||" -> {
+                return frame -> (Boolean) left.evaluate(frame) || (Boolean) right.evaluate(frame);
+            }
+            case "+" -> {
+                if(ast.getType().equals(Environment.Type.STRING)) {
+                    return frame -> String.valueOf(left.evaluate(frame)) + right.evaluate(frame);
+                }
+                else if(integer) {
+                    return frame -> add(left.evaluate(frame), right.evaluate(frame));
+                }
+                else if(decimal) {
+                    return frame -> ((BigDecimal) left.evaluate(frame)).add((BigDecimal) right.evaluate(frame));
+                }
+            }
+            case "-" -> {
+                if(integer) {
+                    return frame -> subtract(left.evaluate(frame), right.evaluate(frame));
+                }
+                else if(decimal) {
+                    return frame -> ((BigDecimal) left.evaluate(frame)).subtract((BigDecimal) right.evaluate(frame));
+                }
+            }
+            case "*" -> {
+                if(integer) {
+                    return frame -> multiply(left.evaluate(frame), right.evaluate(frame));
+                }
+                else if(decimal) {
+                    return frame -> ((BigDecimal) left.evaluate(frame)).multiply((BigDecimal) right.evaluate(frame));
+                }
+            }
+            case "/" -> {
+                if(integer) {
+                    return frame -> divide(left.evaluate(frame), right.evaluate(frame));
+                }
+                else if(decimal) {
+                    return frame -> divide(() -> ((BigDecimal) left.evaluate(frame)).divide((BigDecimal) right.evaluate(frame), RoundingMode.HALF_EVEN));
+                }
+            }
+            case "<" -> {
+                if(integer) {
+                    return frame -> compareIntegers(left.evaluate(frame), right.evaluate(frame)) < 0;
+                }
+                else if(decimal) {
+                    return frame -> ((BigDecimal) left.evaluate(frame)).compareTo((BigDecimal) right.evaluate(frame)) < 0;
+                }
+                return frame -> compare(left.evaluate(frame), right.evaluate(frame)) < 0;
+            }
+            case ">" -> {
+                if(integer) {
+                    return frame -> compareIntegers(left.evaluate(frame), right.evaluate(frame)) > 0;
+                }
+                else if(decimal) {
+                    return frame -> ((BigDecimal) left.evaluate(frame)).compareTo((BigDecimal) right.evaluate(frame)) > 0;
+                }
+                return frame -> compare(left.evaluate(frame), right.evaluate(frame)) > 0;
+            }
+            case "==" -> {
+                return frame -> left.evaluate(frame).equals(right.evaluate(frame));
+            }
+            case "!=" -> {
+                return frame -> !left.evaluate(frame).equals(right.evaluate(frame));
+            }
+            case "^" -> {
+                return frame -> power(left.evaluate(frame), right.evaluate(frame));
+            }
+            default -> {}
+        }
+        throw new RuntimeException("Invalid binary operation " + ast.getOperator() + " on " + type.getName() + ".");
+    }
+
+    private static Object divide(Supplier<Object> division) {
+        try {
+            return division.get();
+        } catch(ArithmeticException err) {
+            throw new RuntimeException("Division error: " + err.getMessage());
+        }
+    }
+
+    /**
+     * Adds two integers, on longs unless either is a {@link BigInteger} or
+     * the sum overflows.
+     */
+    private static Object add(Object left, Object right) {
+        if(left instanceof Long l && right instanceof Long r) {
+            long result = l + r;
+            if(((l ^ result) & (r ^ result)) >= 0) {
+                return result;
+            }
+        }
+        return internal(big(left).add(big(right)));
+    }
+
+    private static Object subtract(Object left, Object right) {
+        if(left instanceof Long l && right instanceof Long r) {
+            long result = l - r;
+            if(((l ^ r) & (l ^ result)) >= 0) {
+                return result;
+            }
+        }
+        return internal(big(left).subtract(big(right)));
+    }
+
+    private static Object multiply(Object left, Object right) {
+        if(left instanceof Long l && right instanceof Long r) {
+            long result = l * r;
+            if(Math.multiplyHigh(l, r) == result >> 63) {
+                return result;
+            }
+        }
+        return internal(big(left).multiply(big(right)));
+    }
+
+    /**
+     * Divides two integers, truncating as {@link BigInteger#divide} does,
+     * which also reports division by zero.
+     */
+    private static Object divide(Object left, Object right) {
+        if(left instanceof Long l && right instanceof Long r && r != 0 && !(l == Long.MIN_VALUE && r == -1)) {
+            return l / r;
+        }
+        return divide(() -> internal(big(left).divide(big(right))));
+    }
+
+    /**
+     * Raises an integer to an integer power by repeated squaring on longs,
+     * finishing with {@link BigInteger#pow} once the result would overflow.
+     */
+    private static Object power(Object left, Object right) {
+        int exponent = big(right).intValueExact();
+        if(left instanceof Long l && exponent >= 0) {
+            long base = l, result = 1;
+            for(int e = exponent; ; e >>= 1) {
+                if((e & 1) != 0) {
+                    long product = result * base;
+                    if(Math.multiplyHigh(result, base) != product >> 63) {
+                        break;
+                    }
+                    result = product;
+                }
+                if(e <= 1) {
+                    return result;
+                }
+                long square = base * base;
+                if(Math.multiplyHigh(base, base) != square >> 63) {
+                    break;
+                }
+                base = square;
+            }
+        }
+        return internal(big(left).pow(exponent));
+    }
+
+    private static int compareIntegers(Object left, Object right) {
+        if(left instanceof Long l && right instanceof Long r) {
+            return Long.compare(l, r);
+        }
+        return big(left).compareTo(big(right));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object left, Object right) {
+        if(isInteger(left) && isInteger(right)) {
+            return compareIntegers(left, right);
+        }
+        if(!(left instanceof Comparable) || left.getClass() != right.getClass()) {
+            throw new RuntimeException("Expected type " + left.getClass().getName() + ", received " + right.getClass().getName() + ".");
+        }
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    /**
+     * Returns the frame slot of the variable accessed by {@code ast}, or -1
+     * for a global. Globals need no analysis, so an unresolved access is one.
+     */
+    private static int slot(Ast.Expression.Access ast) {
+        return ast.hasVariable() ? ast.getVariable().getSlot() : -1;
+    }
+
+    /**
+     * Evaluates {@code expressions} into the first slots of a new frame of
+     * {@code size} slots, those of the parameters of the function called.
+     */
+    private static Object[] evaluate(CompiledExpression[] expressions, Object[] frame, int size) {
+        Object[] values = new Object[size];
+        for(int i = 0; i < expressions.length; i++) {
+            values[i] = expressions[i].evaluate(frame);
+        }
+        return values;
+    }
+
+    /**
+     * Executes {@code statements} in {@code frame}, returning the value of the
+     * first {@code RETURN} executed or {@code null} if there is none.
+     */
+    private static Object execute(CompiledStatement[] statements, Object[] frame) {
+        for(CompiledStatement statement : statements) {
+            Object result = statement.execute(frame);
+            if(result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private static Environment.Variable mutable(Environment.Variable variable) {
+        if(!variable.getMutable()) {
+            throw new RuntimeException("Attempted to assign a value to an immutable variable.");
+        }
+        return variable;
+    }
+
+    private static Environment.PlcObject wrap(Object value) {
+        return value == NIL ? Environment.NIL : new Environment.PlcObject(UNKNOWN, UNKNOWN.getScope(), external(value));
+    }
+
+    /**
+     * Returns {@code value} in the form used within the program: an integer
+     * is a {@link Long} if it fits and a {@link BigInteger} only otherwise, so
+     * equal integers are always equal objects.
+     */
+    private static Object internal(Object value) {
+        return value instanceof BigInteger i && i.bitLength() < 64 ? (Object) i.longValue() : value;
+    }
+
+    /**
+     * Returns {@code value} in the form used outside the program, where every
+     * integer is a {@link BigInteger}.
+     */
+    private static Object external(Object value) {
+        return value instanceof Long l ? BigInteger.valueOf(l) : value;
+    }
+
+    private static boolean isInteger(Object value) {
+        return value instanceof Long || value instanceof BigInteger;
+    }
+
+    private static BigInteger big(Object value) {
+        return value instanceof Long l ? BigInteger.valueOf(l) : (BigInteger) value;
+    }
+
+    @FunctionalInterface
+    private interface CompiledExpression {
+
+        Object evaluate(Object[] frame);
+
+    }
+
+    /**
+     * A statement, returning the value of a {@code RETURN} it executed or
+     * {@code null} to continue with the next statement.
+     */
+    @FunctionalInterface
+    private interface CompiledStatement {
+
+        Object execute(Object[] frame);
+
+    }
+
+    private final class CompiledFunction {
+
+        private final Ast.Function ast;
+        private final int frameSize;
+        private CompiledStatement[] body;
+
+        private CompiledFunction(Ast.Function ast) {
+            this.ast = ast;
+            //A function declaring no locals needs no analysis either.
+            int frameSize = ast.hasFunction() ? ast.getFunction().getFrameSize() : 0;
+            this.frameSize = Math.max(frameSize, ast.getParameters().size());
+        }
+
+        /**
+         * Executes the body in {@code frame}, which holds the arguments in its
+         * first slots.
+         */
+        private Object invoke(Object[] frame) {
+            Object result = execute(body, frame);
+            return result != null ? result : NIL;
+        }
+
+    }
+
+    /**
+     * A call of a function not declared in the source, looked up in the scope
+     * of the run on its first call.
+     */
+    private final class BuiltinCall implements CompiledExpression {
+
+        private final String name;
+        private final CompiledExpression[] arguments;
+        private Scope resolved;
+        private Environment.Function function;
+
+        private BuiltinCall(String name, CompiledExpression[] arguments) {
+            this.name = name;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public Object evaluate(Object[] frame) {
+            if(resolved != CompiledProgram.this.scope) {
+                function = CompiledProgram.this.scope.lookupFunction(name, arguments.length);
+                resolved = CompiledProgram.this.scope;
+            }
+            List<Environment.PlcObject> values = new ArrayList<>(arguments.length);
+            for(CompiledExpression argument : arguments) {
+                values.add(wrap(argument.evaluate(frame)));
+            }
+            return internal(function.invoke(values).getValue());
+        }
+
+    }
+
+}
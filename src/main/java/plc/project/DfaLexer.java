@@ -0,0 +1,418 @@
+package plc.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A table-driven lexer producing the same token stream as {@link Lexer}.
+ *
+ * Instead of matching every character against a regex, each character is
+ * mapped to a character class through a precomputed table and the token
+ * grammar (identifier, number, character, string, operator) is run as an
+ * explicit DFA over those classes. The longest accepting prefix is emitted,
+ * which handles the one character of backtracking needed for inputs such as
+ * {@code 1.} (an integer followed by an operator).
+ *
+ * The quirks of {@link Lexer} are reproduced on purpose so both engines are
+ * interchangeable, including the error indices reported in {@link
+ * ParseException}s. The only difference is a leading {@code @}, which
+ * {@link Lexer} never advances past; here it starts an identifier as in the
+ * grammar ({@code @} followed by a letter).
+ *
+ * The lexer is also an {@link Iterator} over its tokens, which lets a {@link
+ * Parser} pull tokens as it goes instead of waiting for {@link #lex()}.
+ *
+ * Line terminators are recorded into a {@link LineTable} as they are skipped,
+ * so errors can be reported by line and column without rescanning the input.
+ */
+public final class DfaLexer implements Iterator<Token> {
+
+    //Character classes.
+    static final int C_OTHER = 0, C_LETTER = 1, C_ESCAPE_LETTER = 2, C_ZERO = 3,
+            C_DIGIT = 4, C_UNDERSCORE = 5, C_MINUS = 6, C_AT = 7, C_DOT = 8,
+            C_SINGLE_QUOTE = 9, C_DOUBLE_QUOTE = 10, C_BACKSLASH = 11, C_NEWLINE = 12,
+            C_BLANK = 13, C_COMPARISON = 14, C_EQUALS = 15, C_AMPERSAND = 16,
+            C_LINE_SEPARATOR = 17, C_EOF = 18;
+    static final int CLASSES = 19;
+
+    //States. START must be 0 since the transition table is indexed from it.
+    static final int START = 0, IDENTIFIER = 1, AT = 2, MINUS = 3, ZERO = 4,
+            INTEGER = 5, DOT = 6, DECIMAL = 7, CHARACTER_OPEN = 8, CHARACTER_ESCAPE = 9,
+            CHARACTER_BODY = 10, CHARACTER_DONE = 11, STRING = 12, STRING_ESCAPE = 13,
+            STRING_DONE = 14, COMPARISON = 15, AMPERSAND = 16, OPERATOR = 17, WHITESPACE = 18;
+    static final int STATES = 19;
+
+    //Transition results which are not states.
+    static final int STOP = -1, E_IDENTIFIER = -2, E_LEADING_ZERO = -3, E_NUMBER = -4,
+            E_CHARACTER = -5, E_CHARACTER_BODY = -6, E_STRING = -7, E_ESCAPE = -8,
+            E_OPERATOR = -9;
+
+    private static final byte[] ASCII = new byte[128];
+    private static final byte[] TRANSITIONS = new byte[STATES * CLASSES];
+    private static final Token.Type[] ACCEPT = new Token.Type[STATES];
+
+    static {
+        for(char c = 'A'; c <= 'Z'; c++) {
+            ASCII[c] = C_LETTER;
+            ASCII[Character.toLowerCase(c)] = C_LETTER;
+        }
+        for(char c : "bnrt".toCharArray()) {
+            ASCII[c] = C_ESCAPE_LETTER;
+        }
+        ASCII['0'] = C_ZERO;
+        for(char c = '1'; c <= '9'; c++) {
+            ASCII[c] = C_DIGIT;
+        }
+        ASCII['_'] = C_UNDERSCORE;
+        ASCII['-'] = C_MINUS;
+        ASCII['@'] = C_AT;
+        ASCII['.'] = C_DOT;
+        ASCII['\''] = C_SINGLE_QUOTE;
+        ASCII['"'] = C_DOUBLE_QUOTE;
+        ASCII['\\'] = C_BACKSLASH;
+        ASCII['\n'] = C_NEWLINE;
+        ASCII['\r'] = C_NEWLINE;
+        ASCII[' '] = C_BLANK;
+        ASCII['\t'] = C_BLANK;
+        ASCII['<'] = C_COMPARISON;
+        ASCII['>'] = C_COMPARISON;
+        ASCII['!'] = C_COMPARISON;
+        ASCII['='] = C_EQUALS;
+        ASCII['&'] = C_AMPERSAND;
+
+        Arrays.fill(TRANSITIONS, (byte) STOP);
+
+        //Anything not starting another token is a single character operator.
+        fill(START, OPERATOR, C_OTHER, C_UNDERSCORE, C_DOT, C_LINE_SEPARATOR);
+        fill(START, IDENTIFIER, C_LETTER, C_ESCAPE_LETTER);
+        fill(START, AT, C_AT);
+        fill(START, MINUS, C_MINUS);
+        fill(START, ZERO, C_ZERO);
+        fill(START, INTEGER, C_DIGIT);
+        fill(START, CHARACTER_OPEN, C_SINGLE_QUOTE);
+        fill(START, STRING, C_DOUBLE_QUOTE);
+        fill(START, COMPARISON, C_COMPARISON, C_EQUALS);
+        fill(START, AMPERSAND, C_AMPERSAND);
+        fill(START, WHITESPACE, C_BLANK, C_NEWLINE, C_BACKSLASH);
+
+        fill(IDENTIFIER, IDENTIFIER, C_LETTER, C_ESCAPE_LETTER, C_ZERO, C_DIGIT, C_UNDERSCORE, C_MINUS);
+        fill(IDENTIFIER, E_IDENTIFIER, C_LINE_SEPARATOR);
+        fillOthers(AT, E_IDENTIFIER);
+        fill(AT, IDENTIFIER, C_LETTER, C_ESCAPE_LETTER);
+
+        fill(MINUS, ZERO, C_ZERO);
+        fill(MINUS, INTEGER, C_DIGIT);
+        fill(MINUS, DOT, C_DOT);
+        fill(ZERO, E_LEADING_ZERO, C_ZERO, C_DIGIT);
+        fill(ZERO, DOT, C_DOT);
+        fill(INTEGER, INTEGER, C_ZERO, C_DIGIT);
+        fill(INTEGER, DOT, C_DOT);
+        fill(INTEGER, E_NUMBER, C_LINE_SEPARATOR);
+        fill(DOT, DECIMAL, C_ZERO, C_DIGIT);
+        fill(DECIMAL, DECIMAL, C_ZERO, C_DIGIT);
+        fill(DECIMAL, E_NUMBER, C_LINE_SEPARATOR);
+
+        fillOthers(CHARACTER_OPEN, CHARACTER_BODY);
+        fill(CHARACTER_OPEN, E_CHARACTER, C_SINGLE_QUOTE);
+        fill(CHARACTER_OPEN, E_CHARACTER_BODY, C_NEWLINE, C_EOF);
+        fill(CHARACTER_OPEN, CHARACTER_ESCAPE, C_BACKSLASH);
+        fillOthers(CHARACTER_ESCAPE, E_ESCAPE);
+        fill(CHARACTER_ESCAPE, CHARACTER_BODY, C_ESCAPE_LETTER, C_SINGLE_QUOTE, C_DOUBLE_QUOTE, C_BACKSLASH);
+        fillOthers(CHARACTER_BODY, E_CHARACTER);
+        fill(CHARACTER_BODY, CHARACTER_DONE, C_SINGLE_QUOTE);
+
+        fillOthers(STRING, STRING);
+        fill(STRING, STRING_ESCAPE, C_BACKSLASH);
+        fill(STRING, STRING_DONE, C_DOUBLE_QUOTE);
+        fill(STRING, E_STRING, C_NEWLINE, C_EOF);
+        fillOthers(STRING_ESCAPE, E_ESCAPE);
+        fill(STRING_ESCAPE, STRING, C_ESCAPE_LETTER, C_SINGLE_QUOTE, C_DOUBLE_QUOTE, C_BACKSLASH);
+
+        fill(COMPARISON, OPERATOR, C_EQUALS);
+        fillOthers(AMPERSAND, E_OPERATOR);
+        fill(AMPERSAND, OPERATOR, C_AMPERSAND);
+
+        ACCEPT[IDENTIFIER] = Token.Type.IDENTIFIER;
+        ACCEPT[MINUS] = Token.Type.INTEGER;
+        ACCEPT[ZERO] = Token.Type.INTEGER;
+        ACCEPT[INTEGER] = Token.Type.INTEGER;
+        ACCEPT[DECIMAL] = Token.Type.DECIMAL;
+        ACCEPT[CHARACTER_DONE] = Token.Type.CHARACTER;
+        ACCEPT[STRING_DONE] = Token.Type.STRING;
+        ACCEPT[COMPARISON] = Token.Type.OPERATOR;
+        ACCEPT[OPERATOR] = Token.Type.OPERATOR;
+    }
+
+    private static void fill(int state, int next, int... classes) {
+        for(int c : classes) {
+            TRANSITIONS[state * CLASSES + c] = (byte) next;
+        }
+    }
+
+    private static void fillOthers(int state, int next) {
+        for(int c = 0; c < CLASSES; c++) {
+            TRANSITIONS[state * CLASSES + c] = (byte) next;
+        }
+    }
+
+    /**
+     * Returns the character class of {@code c}, where {@code -1} is the end of
+     * the input.
+     */
+    static int classify(int c) {
+        if(c < 128) {
+            return c < 0 ? C_EOF : ASCII[c];
+        }
+        //Line terminators other than \n and \r, which are rejected after numbers
+        //and identifiers since they don't match the regex '.'.
+        return c == '\u0085' || c == '\u2028' || c == '\u2029' ? C_LINE_SEPARATOR : C_OTHER;
+    }
+
+    /**
+     * Returns the state reached from {@code state} on a character of class
+     * {@code cls}, {@link #STOP} if the token ends before that character, or
+     * one of the negative error codes.
+     */
+    static int transition(int state, int cls) {
+        return TRANSITIONS[state * CLASSES + cls];
+    }
+
+    /**
+     * Returns the token type accepted in {@code state}, or {@code null} if the
+     * state is not accepting (whitespace is handled separately).
+     */
+    static Token.Type accept(int state) {
+        return ACCEPT[state];
+    }
+
+    /**
+     * Creates the exception for an error code, where {@code start} is the index
+     * of the token and {@code index} the index of the offending character.
+     */
+    static ParseException error(int code, int start, int index) {
+        return switch(code) {
+            case E_IDENTIFIER -> new ParseException("Invalid identifier.", index);
+            case E_LEADING_ZERO -> new ParseException("Invalid number: ", index + 1);
+            case E_NUMBER -> new ParseException("Invalid number.", index);
+            case E_CHARACTER -> new ParseException("Invalid character", index);
+            case E_CHARACTER_BODY -> new ParseException("Invalid character: here", index);
+            case E_STRING -> new ParseException("Invalid string", index);
+            case E_ESCAPE -> new ParseException("Invalid Escape Sequence", index - start);
+            case E_OPERATOR -> new ParseException("Invalid operator: ", index);
+            default -> throw new AssertionError("Invalid error code: " + code);
+        };
+    }
+
+    private final CharSequence input;
+    private final int end;
+    private int index;
+    private int start;
+    private Token.Type type;
+    private boolean escapes;
+    private int errorIndex;
+    private Token peeked = null;
+    private final LineTable lines = new LineTable();
+
+    public DfaLexer(CharSequence input) {
+        this(input, 0);
+    }
+
+    /**
+     * Creates a lexer starting at {@code index}, which must be the start of a
+     * token or whitespace.
+     */
+    DfaLexer(CharSequence input, int index) {
+        this(input, index, input.length());
+    }
+
+    /**
+     * Creates a lexer over {@code [index, end)} of the input, treating {@code
+     * end} as the end of the input. Token starts remain indices into the whole
+     * input.
+     */
+    DfaLexer(CharSequence input, int index, int end) {
+        this.input = input;
+        this.index = index;
+        this.end = end;
+    }
+
+    /**
+     * Lexes the entire input, skipping whitespace.
+     */
+    public List<Token> lex() {
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        while((token = lexToken()) != null) {
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /**
+     * Lexes the entire input, recovering from errors instead of stopping at the
+     * first one. Each error is added to {@code errors} and the offending token
+     * is skipped up to the next whitespace or delimiter ({@code ;,()[]}), so
+     * the returned tokens are everything which could be lexed.
+     */
+    public List<Token> lex(List<ParseException> errors) {
+        List<Token> tokens = new ArrayList<>();
+        while(true) {
+            try {
+                Token token = lexToken();
+                if(token == null) {
+                    return tokens;
+                }
+                tokens.add(token);
+            } catch(ParseException e) {
+                errors.add(e);
+                index = Math.max(start + 1, errorIndex);
+                while(index < end && !isSynchronization(input.charAt(index))) {
+                    index++;
+                }
+            }
+        }
+    }
+
+    private static boolean isSynchronization(char c) {
+        return switch(classify(c)) {
+            case C_BLANK, C_NEWLINE, C_BACKSLASH -> true;
+            default -> c == ';' || c == ',' || c == '(' || c == ')' || c == '[' || c == ']';
+        };
+    }
+
+    /**
+     * Lexes the entire input into a {@link TokenBuffer}, which records token
+     * positions without creating {@link Token}s or literal strings.
+     */
+    public TokenBuffer lexBuffer() {
+        TokenBuffer buffer = new TokenBuffer(input, Math.max(16, (end - index) / 4));
+        while(scanToken()) {
+            buffer.add(type, start, index - start, escapes);
+        }
+        return buffer;
+    }
+
+    /**
+     * Lexes the next token, skipping any whitespace before it. Returns
+     * {@code null} once the input is exhausted.
+     */
+    public Token lexToken() {
+        if(scanToken()) {
+            return new Token(type, input.subSequence(start, index).toString(), start, escapes);
+        }
+        return null;
+    }
+
+    /**
+     * Scans the next token, skipping whitespace, without creating a {@link
+     * Token}. Returns false once the input is exhausted; otherwise the token is
+     * available from {@link #getTokenType()}, {@link #getTokenStart()} and
+     * {@link #getTokenEnd()}.
+     */
+    boolean scanToken() {
+        while(index < end) {
+            start = index;
+            scan();
+            if(type != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Token.Type getTokenType() {
+        return type;
+    }
+
+    int getTokenStart() {
+        return start;
+    }
+
+    int getTokenEnd() {
+        return index;
+    }
+
+    /**
+     * Returns true if the scanned token is a character or string literal with
+     * an escape sequence.
+     */
+    boolean hasTokenEscapes() {
+        return escapes;
+    }
+
+    /**
+     * Returns the lines of the input lexed so far. For a lexer created at an
+     * index other than 0, only lines starting after that index are recorded.
+     */
+    public LineTable getLineTable() {
+        return lines;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(peeked == null) {
+            peeked = lexToken();
+        }
+        return peeked != null;
+    }
+
+    @Override
+    public Token next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Token token = peeked;
+        peeked = null;
+        return token;
+    }
+
+    /**
+     * Runs the DFA from {@link #start}, leaving {@link #index} after the token
+     * and setting {@link #type} (null for whitespace) and {@link #escapes}.
+     */
+    private void scan() {
+        int state = START, i = start;
+        boolean escaped = false;
+        int acceptEnd = -1;
+        Token.Type acceptType = null;
+        while(true) {
+            int next = transition(state, classify(i < end ? input.charAt(i) : -1));
+            if(next == STOP) {
+                break;
+            }
+            else if(next < STOP) {
+                errorIndex = i;
+                throw error(next, start, i);
+            }
+
+            state = next;
+            i++;
+            if(state == STRING_ESCAPE || state == CHARACTER_ESCAPE) {
+                escaped = true;
+            }
+            else if(state == WHITESPACE) {
+                lines.terminator(input, start);
+                index = i;
+                type = null;
+                return;
+            }
+            else if(ACCEPT[state] != null) {
+                acceptEnd = i;
+                acceptType = ACCEPT[state];
+            }
+        }
+
+        if(acceptType == null) {
+            //Every non-accepting state either errors or follows an accepting one.
+            throw new AssertionError("Unaccepted token at index " + start + ".");
+        }
+
+        index = acceptEnd;
+        type = acceptType;
+        escapes = escaped;
+    }
+
+}
@@ -131,6 +131,7 @@ public final class Environment {
         private final boolean mutable;
         private final Type type;
         private PlcObject value;
+        private int slot = -1;
 
         public Variable(String name, boolean mutable, PlcObject value) {
             this(name, name, Type.ANY, mutable, value);
@@ -168,6 +169,19 @@ public final class Environment {
             this.value = value;
         }
 
+        /**
+         * Returns the index of this local variable in the frame of its
+         * function, assigned by the {@link Analyzer}, or -1 for globals and
+         * variables declared outside of a function.
+         */
+        public int getSlot() {
+            return slot;
+        }
+
+        public void setSlot(int slot) {
+            this.slot = slot;
+        }
+
         @Override
         public boolean equals(Object obj) {
             return obj instanceof Variable &&
@@ -197,6 +211,7 @@ public final class Environment {
         private final List<Type> parameterTypes;
         private final Type returnType;
         private final java.util.function.Function<List<PlcObject>, PlcObject> function;
+        private int frameSize = -1;
 
         public Function(String name, int arity, java.util.function.Function<List<PlcObject>, PlcObject> function) {
             this(name, name, new ArrayList<>(), Type.ANY, function);
@@ -238,6 +253,19 @@ public final class Environment {
             return function.apply(arguments);
         }
 
+        /**
+         * Returns the number of slots needed for the parameters and local
+         * variables of this function, assigned by the {@link Analyzer}, or -1
+         * if it was not analyzed.
+         */
+        public int getFrameSize() {
+            return frameSize;
+        }
+
+        public void setFrameSize(int frameSize) {
+            this.frameSize = frameSize;
+        }
+
         @Override
         public boolean equals(Object obj) {
             return obj instanceof Function &&
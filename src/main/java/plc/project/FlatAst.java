@@ -0,0 +1,829 @@
+package plc.project;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A flat representation of an {@link Ast.Source}, with every node stored as a
+ * record of ints in one array instead of as objects holding {@link List}s and
+ * {@link Optional}s. A node id is the offset of its record, whose first int is
+ * the node kind followed by its fields; names and operators are indices into a
+ * string pool, literal values are indices into a literal pool, and absent
+ * children and names are {@code -1}. Lists of children are stored inline as a
+ * count followed by the child ids.
+ *
+ * Records are written in post-order, so every child precedes its parent and
+ * the source node is last. The records are:
+ *
+ * <pre>
+ * SOURCE       count global*, count function*
+ * GLOBAL       name, typeName, mutable (0 or 1), value
+ * FUNCTION     name, returnTypeName, count parameter*, count parameterTypeName*, count statement*
+ * EXPRESSION   expression
+ * DECLARATION  name, typeName, value
+ * ASSIGNMENT   receiver, value
+ * IF           condition, count statement*, count statement*
+ * SWITCH       condition, count case*
+ * CASE         value, count statement*
+ * WHILE        condition, count statement*
+ * RETURN       value
+ * LITERAL      literal
+ * GROUP        expression
+ * BINARY       operator, left, right
+ * ACCESS       name, offset
+ * CALL         name, count argument*
+ * LIST         count value*
+ * </pre>
+ *
+ * Only the syntax is stored; the types, variables and functions set by the
+ * {@link Analyzer} are not.
+ *
+ * {@link #write(DataOutput)} and {@link #read(ByteBuffer)} store the pools
+ * and records in a compact binary form. Records are written without their
+ * child ids, which are implied by the post-order, and with a presence flag
+ * for optional children; ints are written as unsigned variable-length
+ * quantities of 7 bits per byte (offset by one so {@code -1} is a single
+ * byte), strings as a length and their UTF-8 bytes, and literals as a tag
+ * followed by their value.
+ */
+public final class FlatAst {
+
+    public static final int SOURCE = 0, GLOBAL = 1, FUNCTION = 2, EXPRESSION = 3,
+            DECLARATION = 4, ASSIGNMENT = 5, IF = 6, SWITCH = 7, CASE = 8, WHILE = 9,
+            RETURN = 10, LITERAL = 11, GROUP = 12, BINARY = 13, ACCESS = 14, CALL = 15,
+            LIST = 16;
+
+    /**
+     * The fields of each kind of record, used for serialization: {@code S} a
+     * string index, {@code L} a literal index, {@code B} a boolean, {@code C}
+     * a child, {@code O} an optional child, {@code N} a list of string
+     * indices and {@code M} a list of children.
+     */
+    private static final String[] LAYOUTS = {
+            "MM", "SSBO", "SSNNM", "C", "SSO", "CC", "CMM", "CM", "OM", "CM", "C",
+            "L", "C", "SCC", "SO", "SM", "M"
+    };
+
+    private final int[] nodes;
+    private final String[] strings;
+    private final Object[] literals;
+    private final int root;
+
+    private FlatAst(int[] nodes, String[] strings, Object[] literals, int root) {
+        this.nodes = nodes;
+        this.strings = strings;
+        this.literals = literals;
+        this.root = root;
+    }
+
+    /**
+     * Creates the flat representation of {@code source}.
+     */
+    public static FlatAst of(Ast.Source source) {
+        Builder builder = new Builder();
+        int root = builder.source(source);
+        return new FlatAst(Arrays.copyOf(builder.nodes, builder.size),
+                builder.strings.toArray(new String[0]), builder.literals.toArray(), root);
+    }
+
+    /**
+     * Returns the id of the {@link #SOURCE} node.
+     */
+    public int getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the number of ints used by all node records.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    public int getKind(int node) {
+        return nodes[node];
+    }
+
+    /**
+     * Returns field {@code field} of the record of {@code node}, counting from
+     * 0 after the kind. Fields after a list are at offsets depending on the
+     * list's count.
+     */
+    public int get(int node, int field) {
+        return nodes[node + 1 + field];
+    }
+
+    /**
+     * Returns a string from the pool, or {@code null} for {@code -1}.
+     */
+    public String getString(int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    public Object getLiteral(int index) {
+        return literals[index];
+    }
+
+    /**
+     * Converts back to an {@link Ast.Source}, which is equal to the source this
+     * was created from before analysis.
+     */
+    public Ast.Source toAst() {
+        return new Reader().source(root);
+    }
+
+    /**
+     * Writes the string pool, literal pool and node records to {@code out}.
+     */
+    public void write(DataOutput out) throws IOException {
+        writeInt(out, strings.length);
+        for(String string : strings) {
+            writeString(out, string);
+        }
+        writeInt(out, literals.length);
+        for(Object literal : literals) {
+            writeLiteral(out, literal);
+        }
+        writeInt(out, nodes.length);
+        int node = 0;
+        while(node < nodes.length) {
+            writeInt(out, nodes[node]);
+            int cursor = node + 1;
+            for(char field : LAYOUTS[nodes[node]].toCharArray()) {
+                switch(field) {
+                    case 'S', 'L', 'B' -> writeInt(out, nodes[cursor++]);
+                    case 'C' -> cursor++;
+                    case 'O' -> out.writeBoolean(nodes[cursor++] >= 0);
+                    case 'N' -> {
+                        int count = nodes[cursor++];
+                        writeInt(out, count);
+                        for(int i = 0; i < count; i++) {
+                            writeInt(out, nodes[cursor++]);
+                        }
+                    }
+                    case 'M' -> {
+                        int count = nodes[cursor++];
+                        writeInt(out, count);
+                        cursor += count;
+                    }
+                }
+            }
+            node = cursor;
+        }
+    }
+
+    /**
+     * Reads a flat AST written by {@link #write(DataOutput)} from the position
+     * of {@code in}, leaving it after the AST. Throws an {@link IOException}
+     * if the input is truncated or malformed.
+     */
+    public static FlatAst read(ByteBuffer in) throws IOException {
+        try {
+            return readRecords(in);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Unexpected end of input.", e);
+        }
+    }
+
+    private static FlatAst readRecords(ByteBuffer in) throws IOException {
+        String[] strings = new String[readLength(in)];
+        for(int i = 0; i < strings.length; i++) {
+            strings[i] = readString(in);
+        }
+        Object[] literals = new Object[readLength(in)];
+        for(int i = 0; i < literals.length; i++) {
+            literals[i] = readLiteral(in);
+        }
+
+        //Children precede their parents, so the ids of the children of each
+        //record are the last ones on the stack of records without a parent.
+        int[] nodes = new int[readLength(in)];
+        int size = 0;
+        int[] stack = new int[16];
+        int depth = 0;
+        while(size < nodes.length) {
+            int node = size;
+            int kind = readInt(in);
+            if(kind < 0 || kind >= LAYOUTS.length) {
+                throw new IOException("Unknown node kind " + kind + " at " + node + ".");
+            }
+            String layout = LAYOUTS[kind];
+            if(size + 1 + layout.length() > nodes.length) {
+                throw new IOException("Node " + node + " exceeds the record length.");
+            }
+            nodes[size++] = kind;
+            int children = 0;
+            for(int i = 0; i < layout.length(); i++) {
+                switch(layout.charAt(i)) {
+                    case 'S', 'L', 'B' -> nodes[size++] = readInt(in);
+                    case 'C' -> {
+                        nodes[size++] = 0;
+                        children++;
+                    }
+                    case 'O' -> {
+                        boolean present = in.get() != 0;
+                        nodes[size++] = present ? 0 : -1;
+                        children += present ? 1 : 0;
+                    }
+                    case 'N', 'M' -> {
+                        int count = readLength(in);
+                        if(size + 1 + count > nodes.length) {
+                            throw new IOException("Node " + node + " exceeds the record length.");
+                        }
+                        nodes[size++] = count;
+                        boolean names = layout.charAt(i) == 'N';
+                        for(int j = 0; j < count; j++) {
+                            nodes[size++] = names ? readInt(in) : 0;
+                        }
+                        children += names ? 0 : count;
+                    }
+                }
+            }
+
+            if(children > depth) {
+                throw new IOException("Node " + node + " has " + children + " children, but only " + depth + " are available.");
+            }
+            depth -= children;
+            int next = depth;
+            int cursor = node + 1;
+            for(int i = 0; i < layout.length(); i++) {
+                switch(layout.charAt(i)) {
+                    case 'C' -> nodes[cursor++] = stack[next++];
+                    case 'O' -> {
+                        if(nodes[cursor] == 0) {
+                            nodes[cursor] = stack[next++];
+                        }
+                        cursor++;
+                    }
+                    case 'N' -> cursor += 1 + nodes[cursor];
+                    case 'M' -> {
+                        int count = nodes[cursor++];
+                        for(int j = 0; j < count; j++) {
+                            nodes[cursor++] = stack[next++];
+                        }
+                    }
+                    default -> cursor++;
+                }
+            }
+
+            if(depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = node;
+        }
+        if(depth != 1 || nodes[stack[0]] != SOURCE) {
+            throw new IOException("Expected a single source node, found " + depth + " roots.");
+        }
+        return new FlatAst(nodes, strings, literals, stack[0]);
+    }
+
+    private static final int NIL = 0, BOOLEAN = 1, INTEGER = 2, DECIMAL = 3, CHARACTER = 4, STRING = 5;
+
+    private static void writeLiteral(DataOutput out, Object literal) throws IOException {
+        switch(literal) {
+            case null -> out.writeByte(NIL);
+            case Boolean value -> {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean(value);
+            }
+            case BigInteger value -> {
+                out.writeByte(INTEGER);
+                writeBytes(out, value.toByteArray());
+            }
+            case BigDecimal value -> {
+                out.writeByte(DECIMAL);
+                out.writeInt(value.scale());
+                writeBytes(out, value.unscaledValue().toByteArray());
+            }
+            case Character value -> {
+                out.writeByte(CHARACTER);
+                out.writeChar(value);
+            }
+            case String value -> {
+                out.writeByte(STRING);
+                writeString(out, value);
+            }
+            default -> throw new IllegalArgumentException("Unknown literal " + literal.getClass().getName() + ".");
+        }
+    }
+
+    private static Object readLiteral(ByteBuffer in) throws IOException {
+        int tag = in.get();
+        return switch(tag) {
+            case NIL -> null;
+            case BOOLEAN -> in.get() != 0;
+            case INTEGER -> new BigInteger(readBytes(in));
+            case DECIMAL -> {
+                int scale = in.getInt();
+                yield new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case CHARACTER -> in.getChar();
+            case STRING -> readString(in);
+            default -> throw new IOException("Unknown literal tag " + tag + ".");
+        };
+    }
+
+    static void writeString(DataOutput out, String string) throws IOException {
+        writeBytes(out, string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String readString(ByteBuffer in) throws IOException {
+        int length = readLength(in);
+        if(in.hasArray()) {
+            String string = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return string;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        writeInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes {@code value}, which must be at least {@code -1}, as {@code value
+     * + 1} in 7 bit groups, low group first, with the high bit set on every
+     * byte but the last.
+     */
+    static void writeInt(DataOutput out, int value) throws IOException {
+        int bits = value + 1;
+        while((bits & ~0x7F) != 0) {
+            out.writeByte((bits & 0x7F) | 0x80);
+            bits >>>= 7;
+        }
+        out.writeByte(bits);
+    }
+
+    static int readInt(ByteBuffer in) throws IOException {
+        int bits = 0;
+        for(int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            bits |= (b & 0x7F) << shift;
+            if(b >= 0) {
+                return bits - 1;
+            }
+        }
+        throw new IOException("Malformed variable-length int.");
+    }
+
+    static int readLength(ByteBuffer in) throws IOException {
+        int length = readInt(in);
+        if(length < 0) {
+            throw new IOException("Negative length " + length + ".");
+        }
+        return length;
+    }
+
+    /**
+     * Returns the children of {@code ast} in the order of the fields of its
+     * record, which is also the order they are parsed in, leaving out absent
+     * optional children.
+     */
+    static List<Ast> children(Ast ast) {
+        List<Ast> children = new ArrayList<>();
+        switch(ast) {
+            case Ast.Source source -> {
+                children.addAll(source.getGlobals());
+                children.addAll(source.getFunctions());
+            }
+            case Ast.Global global -> global.getValue().ifPresent(children::add);
+            case Ast.Function function -> children.addAll(function.getStatements());
+            case Ast.Statement.Expression statement -> children.add(statement.getExpression());
+            case Ast.Statement.Declaration statement -> statement.getValue().ifPresent(children::add);
+            case Ast.Statement.Assignment statement -> {
+                children.add(statement.getReceiver());
+                children.add(statement.getValue());
+            }
+            case Ast.Statement.If statement -> {
+                children.add(statement.getCondition());
+                children.addAll(statement.getThenStatements());
+                children.addAll(statement.getElseStatements());
+            }
+            case Ast.Statement.Switch statement -> {
+                children.add(statement.getCondition());
+                children.addAll(statement.getCases());
+            }
+            case Ast.Statement.Case statement -> {
+                statement.getValue().ifPresent(children::add);
+                children.addAll(statement.getStatements());
+            }
+            case Ast.Statement.While statement -> {
+                children.add(statement.getCondition());
+                children.addAll(statement.getStatements());
+            }
+            case Ast.Statement.Return statement -> children.add(statement.getValue());
+            case Ast.Expression.Literal expression -> {}
+            case Ast.Expression.Group expression -> children.add(expression.getExpression());
+            case Ast.Expression.Binary expression -> {
+                children.add(expression.getLeft());
+                children.add(expression.getRight());
+            }
+            case Ast.Expression.Access expression -> expression.getOffset().ifPresent(children::add);
+            case Ast.Expression.Function expression -> children.addAll(expression.getArguments());
+            case Ast.Expression.PlcList expression -> children.addAll(expression.getValues());
+            default -> throw new IllegalArgumentException("Unknown node " + ast.getClass().getName() + ".");
+        }
+        return children;
+    }
+
+    private static final class Builder {
+
+        private int[] nodes = new int[256];
+        private int size = 0;
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndices = new HashMap<>();
+        private final List<Object> literals = new ArrayList<>();
+        private final Map<Object, Integer> literalIndices = new HashMap<>();
+
+        //Nodes still to be written, each pushed once to push its children
+        //and once more, expanded, to write its record. Ids of the written
+        //nodes whose parents are not written yet are on the id stack, so the
+        //children of a node are the last ones on it when its record is.
+        private Ast[] work = new Ast[16];
+        private boolean[] expanded = new boolean[16];
+        private int pending = 0;
+        private int[] ids = new int[16];
+        private int written = 0;
+
+        /**
+         * Writes the records of {@code ast} in post-order, with an explicit
+         * stack instead of recursion so any depth of nesting can be written.
+         */
+        private int source(Ast.Source ast) {
+            push(ast, false);
+            while(pending > 0) {
+                pending--;
+                Ast node = work[pending];
+                if(expanded[pending]) {
+                    int count = children(node).size();
+                    written -= count;
+                    int[] children = Arrays.copyOfRange(ids, written, written + count);
+                    addId(record(node, children));
+                }
+                else {
+                    push(node, true);
+                    List<Ast> children = children(node);
+                    for(int i = children.size() - 1; i >= 0; i--) {
+                        push(children.get(i), false);
+                    }
+                }
+            }
+            return ids[--written];
+        }
+
+        private void push(Ast ast, boolean expand) {
+            if(pending == work.length) {
+                work = Arrays.copyOf(work, pending * 2);
+                expanded = Arrays.copyOf(expanded, pending * 2);
+            }
+            work[pending] = ast;
+            expanded[pending++] = expand;
+        }
+
+        private void addId(int id) {
+            if(written == ids.length) {
+                ids = Arrays.copyOf(ids, written * 2);
+            }
+            ids[written++] = id;
+        }
+
+        /**
+         * Writes the record of {@code ast}, whose children were written with
+         * the ids {@code children}, and returns its id.
+         */
+        private int record(Ast ast, int[] children) {
+            switch(ast) {
+                case Ast.Source source -> {
+                    int globals = source.getGlobals().size();
+                    int node = begin(SOURCE);
+                    list(Arrays.copyOfRange(children, 0, globals));
+                    list(Arrays.copyOfRange(children, globals, children.length));
+                    return node;
+                }
+                case Ast.Global global -> {
+                    int node = begin(GLOBAL);
+                    add(string(global.getName()));
+                    add(string(global.getTypeName()));
+                    add(global.getMutable() ? 1 : 0);
+                    add(global.getValue().isPresent() ? children[0] : -1);
+                    return node;
+                }
+                case Ast.Function function -> {
+                    int node = begin(FUNCTION);
+                    add(string(function.getName()));
+                    add(string(function.getReturnTypeName().orElse(null)));
+                    strings(function.getParameters());
+                    strings(function.getParameterTypeNames());
+                    list(children);
+                    return node;
+                }
+                case Ast.Statement.Expression statement -> {
+                    int node = begin(EXPRESSION);
+                    add(children[0]);
+                    return node;
+                }
+                case Ast.Statement.Declaration statement -> {
+                    int node = begin(DECLARATION);
+                    add(string(statement.getName()));
+                    add(string(statement.getTypeName().orElse(null)));
+                    add(statement.getValue().isPresent() ? children[0] : -1);
+                    return node;
+                }
+                case Ast.Statement.Assignment statement -> {
+                    int node = begin(ASSIGNMENT);
+                    add(children[0]);
+                    add(children[1]);
+                    return node;
+                }
+                case Ast.Statement.If statement -> {
+                    int thenStatements = 1 + statement.getThenStatements().size();
+                    int node = begin(IF);
+                    add(children[0]);
+                    list(Arrays.copyOfRange(children, 1, thenStatements));
+                    list(Arrays.copyOfRange(children, thenStatements, children.length));
+                    return node;
+                }
+                case Ast.Statement.Switch statement -> {
+                    int node = begin(SWITCH);
+                    add(children[0]);
+                    list(Arrays.copyOfRange(children, 1, children.length));
+                    return node;
+                }
+                case Ast.Statement.Case statement -> {
+                    int value = statement.getValue().isPresent() ? 1 : 0;
+                    int node = begin(CASE);
+                    add(value == 1 ? children[0] : -1);
+                    list(Arrays.copyOfRange(children, value, children.length));
+                    return node;
+                }
+                case Ast.Statement.While statement -> {
+                    int node = begin(WHILE);
+                    add(children[0]);
+                    list(Arrays.copyOfRange(children, 1, children.length));
+                    return node;
+                }
+                case Ast.Statement.Return statement -> {
+                    int node = begin(RETURN);
+                    add(children[0]);
+                    return node;
+                }
+                case Ast.Expression.Literal expression -> {
+                    int node = begin(LITERAL);
+                    add(literal(expression.getLiteral()));
+                    return node;
+                }
+                case Ast.Expression.Group expression -> {
+                    int node = begin(GROUP);
+                    add(children[0]);
+                    return node;
+                }
+                case Ast.Expression.Binary expression -> {
+                    int node = begin(BINARY);
+                    add(string(expression.getOperator()));
+                    add(children[0]);
+                    add(children[1]);
+                    return node;
+                }
+                case Ast.Expression.Access expression -> {
+                    int node = begin(ACCESS);
+                    add(string(expression.getName()));
+                    add(expression.getOffset().isPresent() ? children[0] : -1);
+                    return node;
+                }
+                case Ast.Expression.Function expression -> {
+                    int node = begin(CALL);
+                    add(string(expression.getName()));
+                    list(children);
+                    return node;
+                }
+                case Ast.Expression.PlcList expression -> {
+                    int node = begin(LIST);
+                    list(children);
+                    return node;
+                }
+                default -> throw new IllegalArgumentException("Unknown node " + ast.getClass().getName() + ".");
+            }
+        }
+
+        private int string(String string) {
+            if(string == null) {
+                return -1;
+            }
+            return stringIndices.computeIfAbsent(string, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+
+        private void strings(List<String> values) {
+            add(values.size());
+            for(String value : values) {
+                add(string(value));
+            }
+        }
+
+        private int literal(Object literal) {
+            //HashMap permits a null key, which is the literal NIL.
+            return literalIndices.computeIfAbsent(literal, l -> {
+                literals.add(l);
+                return literals.size() - 1;
+            });
+        }
+
+        private int begin(int kind) {
+            int node = size;
+            add(kind);
+            return node;
+        }
+
+        private void list(int[] ids) {
+            add(ids.length);
+            for(int id : ids) {
+                add(id);
+            }
+        }
+
+        private void add(int value) {
+            if(size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            nodes[size++] = value;
+        }
+
+    }
+
+    /**
+     * Reads records back into {@link Ast} nodes. Records are in post-order, so
+     * reading them in order reads the children of every node before it,
+     * without recursion; a cursor walks the fields of the current record.
+     */
+    private final class Reader {
+
+        private final Ast[] read = new Ast[nodes.length];
+        private int cursor;
+
+        private Ast.Source source(int root) {
+            for(int node = 0; node < nodes.length; node = cursor) {
+                read[node] = node(node);
+            }
+            return (Ast.Source) read[root];
+        }
+
+        /**
+         * Reads the record of {@code node}, leaving the cursor after it.
+         */
+        private Ast node(int node) {
+            cursor = node + 1;
+            switch(nodes[node]) {
+                case SOURCE -> {
+                    int[] globals = ids();
+                    int[] functions = ids();
+                    return new Ast.Source(read(globals), read(functions));
+                }
+                case GLOBAL -> {
+                    String name = getString(next());
+                    String typeName = getString(next());
+                    boolean mutable = next() == 1;
+                    int value = next();
+                    return new Ast.Global(name, typeName, mutable, optional(value));
+                }
+                case FUNCTION -> {
+                    String name = getString(next());
+                    String returnTypeName = getString(next());
+                    List<String> parameters = strings();
+                    List<String> parameterTypeNames = strings();
+                    int[] statements = ids();
+                    return new Ast.Function(name, parameters, parameterTypeNames, Optional.ofNullable(returnTypeName), read(statements));
+                }
+                case EXPRESSION -> {
+                    return new Ast.Statement.Expression(read(next()));
+                }
+                case DECLARATION -> {
+                    String name = getString(next());
+                    String typeName = getString(next());
+                    int value = next();
+                    return new Ast.Statement.Declaration(name, Optional.ofNullable(typeName), optional(value));
+                }
+                case ASSIGNMENT -> {
+                    int receiver = next();
+                    int value = next();
+                    return new Ast.Statement.Assignment(read(receiver), read(value));
+                }
+                case IF -> {
+                    int condition = next();
+                    int[] thenStatements = ids();
+                    int[] elseStatements = ids();
+                    return new Ast.Statement.If(read(condition), read(thenStatements), read(elseStatements));
+                }
+                case SWITCH -> {
+                    int condition = next();
+                    int[] cases = ids();
+                    return new Ast.Statement.Switch(read(condition), read(cases));
+                }
+                case CASE -> {
+                    int value = next();
+                    int[] statements = ids();
+                    return new Ast.Statement.Case(optional(value), read(statements));
+                }
+                case WHILE -> {
+                    int condition = next();
+                    int[] statements = ids();
+                    return new Ast.Statement.While(read(condition), read(statements));
+                }
+                case RETURN -> {
+                    return new Ast.Statement.Return(read(next()));
+                }
+                case LITERAL -> {
+                    return new Ast.Expression.Literal(literals[next()]);
+                }
+                case GROUP -> {
+                    return new Ast.Expression.Group(read(next()));
+                }
+                case BINARY -> {
+                    String operator = getString(next());
+                    int left = next();
+                    int right = next();
+                    return new Ast.Expression.Binary(operator, read(left), read(right));
+                }
+                case ACCESS -> {
+                    String name = getString(next());
+                    int offset = next();
+                    return new Ast.Expression.Access(optional(offset), name);
+                }
+                case CALL -> {
+                    String name = getString(next());
+                    return new Ast.Expression.Function(name, read(ids()));
+                }
+                case LIST -> {
+                    return new Ast.Expression.PlcList(read(ids()));
+                }
+                default -> throw new IllegalStateException("Node " + node + " has unknown kind " + nodes[node] + ".");
+            }
+        }
+
+        /**
+         * Returns the node read for the record {@code node}, which precedes
+         * the record being read.
+         */
+        @SuppressWarnings("unchecked")
+        private <T extends Ast> T read(int node) {
+            return (T) read[node];
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T extends Ast> List<T> read(int[] ids) {
+            List<T> nodes = new ArrayList<>(ids.length);
+            for(int id : ids) {
+                nodes.add((T) read[id]);
+            }
+            return nodes;
+        }
+
+        private Optional<Ast.Expression> optional(int node) {
+            return node < 0 ? Optional.empty() : Optional.of(read(node));
+        }
+
+        private List<String> strings() {
+            int count = next();
+            List<String> values = new ArrayList<>();
+            for(int i = 0; i < count; i++) {
+                values.add(getString(next()));
+            }
+            return values;
+        }
+
+        private int[] ids() {
+            int count = next();
+            int[] ids = Arrays.copyOfRange(nodes, cursor, cursor + count);
+            cursor += count;
+            return ids;
+        }
+
+        private int next() {
+            return nodes[cursor++];
+        }
+
+    }
+
+}
@@ -0,0 +1,425 @@
+package plc.project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the parsed and analyzed form of an edited source up to date by
+ * reparsing and reanalyzing only the top-level declarations an edit touches,
+ * so the work per edit depends on the size of the edited declarations rather
+ * than of the whole source.
+ *
+ * The source is split into one entry per declaration, starting at each {@code
+ * FUN}, {@code VAL}, {@code VAR} or {@code LIST} token (as in {@link
+ * ParallelParser}), and each entry is parsed on its own. Tokens are kept up
+ * to date by an {@link IncrementalLexer}. An edit reparses the entries
+ * overlapping it, extended until the tokens after them are unchanged, which
+ * can split or merge declarations.
+ *
+ * Entries are analyzed with a {@link Scope} holding the signature (types,
+ * parameter types and return type) of every declaration. An entry is
+ * reanalyzed when it is reparsed, and its dependents (the entries referring
+ * to a name it defines) only when a signature changes, so editing the body of
+ * a function reanalyzes that function alone. References are checked to follow
+ * the order {@link Analyzer#visit(Ast.Source)} defines names in: globals
+ * before functions, each in source order.
+ *
+ * Unlike the batch {@link Parser} and {@link Analyzer}, which stop at the
+ * first error, each declaration reports its own error through {@link
+ * #getErrors()}. Lexer errors are thrown by {@link #edit(int, int, String)},
+ * which then keeps the previous state.
+ */
+public final class IncrementalCompiler {
+
+    private final IncrementalLexer lexer;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Set<Entry>> referencers = new HashMap<>();
+
+    //The definitions of the declarations, by key (see Entry#key), the entry
+    //defining each key and the key of each variable and function in scope.
+    private Scope scope = new Scope(null);
+    private final Map<String, Entry> definers = new HashMap<>();
+    private final Map<Object, String> keys = new IdentityHashMap<>();
+
+    private int parsed = 0;
+    private int analyzed = 0;
+
+    public IncrementalCompiler(String source) {
+        lexer = new IncrementalLexer(source);
+        TokenBuffer tokens = lexer.getTokens();
+        List<Entry> created = parse(tokens, 0, tokens.size(), 0);
+        entries.addAll(created);
+        created.forEach(this::register);
+        renumber(0);
+        define();
+        created.forEach(this::analyze);
+    }
+
+    public String getSource() {
+        return lexer.getSource();
+    }
+
+    /**
+     * Returns the declarations which parsed, in source order.
+     */
+    public Ast.Source getAst() {
+        List<Ast.Global> globals = new ArrayList<>();
+        List<Ast.Function> functions = new ArrayList<>();
+        for(Entry entry : entries) {
+            if(entry.ast instanceof Ast.Global global) {
+                globals.add(global);
+            }
+            else if(entry.ast instanceof Ast.Function function) {
+                functions.add(function);
+            }
+        }
+        return new Ast.Source(globals, functions);
+    }
+
+    /**
+     * Returns the parse or analysis error of each declaration which has one,
+     * in source order, followed by an error if there is no {@code main/0}
+     * function.
+     */
+    public List<RuntimeException> getErrors() {
+        List<RuntimeException> errors = new ArrayList<>();
+        for(Entry entry : entries) {
+            if(entry.error != null) {
+                errors.add(entry.error);
+            }
+        }
+        if(!definers.containsKey("main/0")) {
+            errors.add(new RuntimeException("The function main/0 is not defined in this scope."));
+        }
+        return errors;
+    }
+
+    /**
+     * Returns the number of declarations parsed by the last edit.
+     */
+    int getParsed() {
+        return parsed;
+    }
+
+    /**
+     * Returns the number of declarations analyzed by the last edit.
+     */
+    int getAnalyzed() {
+        return analyzed;
+    }
+
+    /**
+     * Replaces {@code removed} characters at {@code offset} with {@code
+     * inserted}, then reparses and reanalyzes the affected declarations.
+     */
+    public void edit(int offset, int removed, String inserted) {
+        int length = lexer.getSource().length();
+        TokenBuffer tokens = lexer.edit(offset, removed, inserted);
+        int shift = inserted.length() - removed;
+
+        //Entries containing the character before the edit (which the edit may
+        //join to) through the end of the removed range.
+        int first = find(Math.max(offset - 1, 0));
+        int last = entries.isEmpty() ? -1 : find(Math.min(offset + removed, length));
+        int start = entries.isEmpty() ? 0 : entries.get(first).start;
+        int from = firstToken(tokens, start);
+        int to;
+        while(true) {
+            if(last + 1 >= entries.size()) {
+                to = tokens.size();
+                break;
+            }
+            int end = entries.get(last + 1).start + shift;
+            to = firstToken(tokens, end);
+            if(to < tokens.size() && tokens.getStart(to) == end && isDeclaration(tokens.getKind(to))) {
+                break;
+            }
+            last++; //the next entry no longer starts a declaration
+        }
+
+        List<Entry> created = parse(tokens, from, to, start);
+        List<Entry> replaced = new ArrayList<>(entries.subList(first, last + 1));
+        entries.subList(first, last + 1).clear();
+        entries.addAll(first, created);
+        for(int i = first + created.size(); i < entries.size(); i++) {
+            entries.get(i).start += shift;
+        }
+        renumber(first);
+        replaced.forEach(this::unregister);
+        created.forEach(this::register);
+
+        parsed = created.size();
+        analyzed = 0;
+        Set<Entry> dirty = new LinkedHashSet<>(created);
+        if(sameDefinitions(replaced, created)) {
+            for(int i = 0; i < created.size(); i++) {
+                definers.put(created.get(i).key, created.get(i));
+            }
+        }
+        else {
+            Set<String> changed = new HashSet<>();
+            for(Entry entry : replaced) {
+                changed.add(entry.key);
+            }
+            for(Entry entry : created) {
+                changed.add(entry.key);
+            }
+            changed.remove(null);
+            define();
+            for(String key : changed) {
+                dirty.addAll(referencers.getOrDefault(key, Set.of()));
+                Entry definer = definers.get(key);
+                if(definer != null) {
+                    dirty.add(definer);
+                }
+            }
+        }
+        dirty.forEach(this::analyze);
+    }
+
+    /**
+     * Returns whether the replaced entries define the same names with the
+     * same signatures as the created ones, without duplicates, so the scope
+     * does not change.
+     */
+    private boolean sameDefinitions(List<Entry> replaced, List<Entry> created) {
+        if(replaced.size() != created.size()) {
+            return false;
+        }
+        for(int i = 0; i < replaced.size(); i++) {
+            Entry old = replaced.get(i), entry = created.get(i);
+            if(old.key == null && entry.key == null) {
+                continue;
+            }
+            if(old.key == null || !old.key.equals(entry.key) || !old.signature.equals(entry.signature)
+                    || definers.get(old.key) != old) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses tokens {@code [from, to)} into one entry per declaration, the
+     * first starting at {@code start}.
+     */
+    private List<Entry> parse(TokenBuffer tokens, int from, int to, int start) {
+        List<Entry> created = new ArrayList<>();
+        int begin = from;
+        while(begin < to) {
+            int end = begin + 1;
+            while(end < to && !isDeclaration(tokens.getKind(end))) {
+                end++;
+            }
+            Entry entry = new Entry(begin == from ? start : tokens.getStart(begin));
+            try {
+                Ast.Source source = new Parser(tokens, begin, end).parseSource();
+                entry.ast = source.getGlobals().isEmpty() ? source.getFunctions().get(0) : source.getGlobals().get(0);
+            } catch (ParseException e) {
+                entry.error = e;
+            }
+            entry.describe();
+            created.add(entry);
+            begin = end;
+        }
+        return created;
+    }
+
+    /**
+     * Rebuilds the scope from the signatures of every entry, in the order the
+     * {@link Analyzer} would define them, marking later definitions of the
+     * same name as errors.
+     */
+    private void define() {
+        scope = new Scope(null);
+        definers.clear();
+        keys.clear();
+        for(boolean functions : new boolean[] {false, true}) {
+            for(Entry entry : entries) {
+                if(entry.key == null || entry.ast instanceof Ast.Function != functions) {
+                    continue;
+                }
+                entry.duplicate = null;
+                if(definers.containsKey(entry.key)) {
+                    entry.duplicate = new RuntimeException(functions
+                            ? "The function " + entry.key + " is already defined in this scope."
+                            : "The variable " + ((Ast.Global) entry.ast).getName() + " is already defined in this scope.");
+                    entry.error = entry.duplicate;
+                    continue;
+                }
+                definers.put(entry.key, entry);
+                try {
+                    switch(entry.ast) {
+                        case Ast.Global global -> keys.put(scope.defineVariable(global.getName(), global.getName(),
+                                Environment.getType(global.getTypeName()), global.getMutable(), Environment.NIL), entry.key);
+                        case Ast.Function function -> {
+                            List<Environment.Type> parameterTypes = new ArrayList<>();
+                            for(String name : function.getParameterTypeNames()) {
+                                parameterTypes.add(Environment.getType(name));
+                            }
+                            Environment.Type returnType = function.getReturnTypeName().map(Environment::getType).orElse(Environment.Type.NIL);
+                            keys.put(scope.defineFunction(function.getName(), function.getName(),
+                                    parameterTypes, returnType, args -> Environment.NIL), entry.key);
+                        }
+                        default -> {}
+                    }
+                } catch (RuntimeException e) {
+                    //Unknown types are reported when the entry is analyzed.
+                }
+            }
+        }
+    }
+
+    /**
+     * Analyzes {@code entry} with the current scope, if it parsed and is not
+     * a duplicate definition.
+     */
+    private void analyze(Entry entry) {
+        if(entry.ast == null || entry.duplicate != null || entry.position < 0) {
+            return;
+        }
+        analyzed++;
+        entry.error = null;
+        try {
+            new Analyzer(scope).visit(entry.ast);
+            AstCache.walk(entry.ast, node -> {
+                switch(node) {
+                    case Ast.Expression.Access access -> require(entry, keys.get(access.getVariable()),
+                            "The variable " + access.getName() + " is not defined in this scope.");
+                    case Ast.Expression.Function function -> require(entry, keys.get(function.getFunction()),
+                            "The function " + function.getName() + "/" + function.getArguments().size() + " is not defined in this scope.");
+                    default -> {}
+                }
+            });
+        } catch (RuntimeException e) {
+            entry.error = e;
+        }
+    }
+
+    /**
+     * Requires that the definition of {@code key}, if it is one from the
+     * scope, is defined before {@code entry} is analyzed.
+     */
+    private void require(Entry entry, String key, String message) {
+        if(key == null) {
+            return;
+        }
+        Entry definer = definers.get(key);
+        boolean global = definer.ast instanceof Ast.Global;
+        if(global != entry.ast instanceof Ast.Global ? !global : definer.position >= entry.position) {
+            throw new RuntimeException(message);
+        }
+    }
+
+    private void register(Entry entry) {
+        for(String reference : entry.references) {
+            referencers.computeIfAbsent(reference, k -> new HashSet<>()).add(entry);
+        }
+    }
+
+    private void unregister(Entry entry) {
+        entry.position = -1;
+        for(String reference : entry.references) {
+            Set<Entry> set = referencers.get(reference);
+            set.remove(entry);
+            if(set.isEmpty()) {
+                referencers.remove(reference);
+            }
+        }
+    }
+
+    private void renumber(int from) {
+        for(int i = from; i < entries.size(); i++) {
+            entries.get(i).position = i;
+        }
+    }
+
+    /**
+     * Returns the index of the entry containing {@code offset}.
+     */
+    private int find(int offset) {
+        int low = 0, high = entries.size() - 1;
+        while(low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if(entries.get(mid).start <= offset) {
+                low = mid;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int firstToken(TokenBuffer tokens, int offset) {
+        int low = 0, high = tokens.size();
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(tokens.getStart(mid) < offset) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isDeclaration(int kind) {
+        return kind == TokenKind.FUN || kind == TokenKind.VAL || kind == TokenKind.VAR || kind == TokenKind.LIST;
+    }
+
+    /**
+     * A top-level declaration, from its first token (or the start of the
+     * source) to the next declaration.
+     */
+    private static final class Entry {
+
+        private int start;
+        private int position;
+        private Ast ast;
+        private RuntimeException error;
+        private RuntimeException duplicate;
+
+        //The name defined, as name for globals and name/arity for functions,
+        //its signature and the names referred to.
+        private String key;
+        private String signature;
+        private final Set<String> references = new HashSet<>();
+
+        private Entry(int start) {
+            this.start = start;
+        }
+
+        private void describe() {
+            switch(ast) {
+                case Ast.Global global -> {
+                    key = global.getName();
+                    signature = global.getTypeName() + (global.getMutable() ? " VAR" : " VAL");
+                }
+                case Ast.Function function -> {
+                    key = function.getName() + "/" + function.getParameters().size();
+                    signature = function.getParameterTypeNames() + ": " + function.getReturnTypeName().orElse("Nil");
+                }
+                case null, default -> {
+                    return;
+                }
+            }
+            AstCache.walk(ast, node -> {
+                switch(node) {
+                    case Ast.Expression.Access access -> references.add(access.getName());
+                    case Ast.Expression.Function function -> references.add(function.getName() + "/" + function.getArguments().size());
+                    default -> {}
+                }
+            });
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package plc.project;
+
+/**
+ * Keeps the tokens of an edited source up to date without re-lexing the whole
+ * file. An {@link #edit(int, int, String)} re-lexes from the first token the
+ * edit could have changed and stops as soon as a token starts at the same
+ * (shifted) position as a token of the previous buffer after the edit, since
+ * the lexer carries no state between tokens and everything from there on is
+ * unchanged. The remaining tokens are reused with their indices shifted.
+ */
+public final class IncrementalLexer {
+
+    //The DFA reads at most this many characters past the end of a token, for
+    //the '.' in '1.x'.
+    private static final int LOOKAHEAD = 2;
+
+    private String source;
+    private TokenBuffer tokens;
+
+    public IncrementalLexer(String source) {
+        this.source = source;
+        this.tokens = new DfaLexer(source).lexBuffer();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Replaces {@code removed} characters at {@code offset} with {@code
+     * inserted} and returns the updated tokens. If the edited source fails to
+     * lex the {@link ParseException} is thrown and the previous state is kept.
+     */
+    public TokenBuffer edit(int offset, int removed, String inserted) {
+        if(offset < 0 || removed < 0 || offset + removed > source.length()) {
+            throw new IndexOutOfBoundsException("Invalid edit of " + removed + " characters at " + offset + " for length " + source.length() + ".");
+        }
+        String edited = source.substring(0, offset) + inserted + source.substring(offset + removed);
+        int shift = inserted.length() - removed;
+        int editEnd = offset + inserted.length();
+
+        //First token which could have been affected, including by lookahead.
+        //Anything between the previous token and the edit is whitespace, so
+        //lexing can restart at the edit if that token starts after it.
+        int first = firstAffected(offset);
+        int restart = first < tokens.size() ? Math.min(tokens.getStart(first), offset) : offset;
+
+        //Old tokens starting at or after the removed range, in new positions.
+        int resume = firstStartingAtOrAfter(offset + removed);
+
+        DfaLexer lexer = new DfaLexer(edited, restart);
+        TokenBuffer replacement = new TokenBuffer(edited);
+        boolean resynchronized = false;
+        while(!resynchronized && lexer.scanToken()) {
+            int start = lexer.getTokenStart();
+            while(resume < tokens.size() && tokens.getStart(resume) + shift < start) {
+                resume++;
+            }
+            if(start >= editEnd && resume < tokens.size() && tokens.getStart(resume) + shift == start) {
+                resynchronized = true;
+            }
+            else {
+                replacement.add(lexer.getTokenType(), start, lexer.getTokenEnd() - start, lexer.hasTokenEscapes());
+            }
+        }
+        if(!resynchronized) {
+            resume = tokens.size();
+        }
+
+        tokens = tokens.splice(edited, first, resume, replacement, shift);
+        source = edited;
+        return tokens;
+    }
+
+    /**
+     * Returns the index of the first token whose end plus lookahead reaches
+     * {@code offset}.
+     */
+    private int firstAffected(int offset) {
+        int low = 0, high = tokens.size();
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(tokens.getStart(mid) + tokens.getLength(mid) + LOOKAHEAD <= offset) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstStartingAtOrAfter(int offset) {
+        int low = 0, high = tokens.size();
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(tokens.getStart(mid) < offset) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+}
@@ -11,6 +11,11 @@ import java.util.stream.Collectors;
 public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
 
     private Scope scope = new Scope(null);
+    private boolean compiled = false;
+
+    //The slots of the parameters and locals of the analyzed function being
+    //run, or null if its variables are defined in scopes instead.
+    private Environment.PlcObject[] frame;
 
     public Interpreter(Scope parent) {
         scope = new Scope(parent);
@@ -30,8 +35,20 @@ public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
         return scope;
     }
 
+    /**
+     * Selects whether {@link #visit(Ast.Source)} compiles the source into a
+     * {@link CompiledProgram} and runs that instead of walking the AST. The
+     * source must then have been analyzed.
+     */
+    public void setCompiled(boolean compiled) {
+        this.compiled = compiled;
+    }
+
     @Override
     public Environment.PlcObject visit(Ast.Source ast) {
+        if(compiled) {
+            return new CompiledProgram(ast).run(scope);
+        }
         List<Ast.Global> globals = ast.getGlobals();
         List<Ast.Function> funcs = ast.getFunctions();
         for(Ast.Global var : globals) {
@@ -67,6 +84,30 @@ public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
     @Override
     public Environment.PlcObject visit(Ast.Function ast) {
         Scope parent = scope;
+        int frameSize = frameSize(ast);
+        if(frameSize >= 0) {
+            scope.defineFunction(ast.getName(), ast.getParameters().size(), args -> {
+                Scope caller = scope;
+                Environment.PlcObject[] callerFrame = frame;
+                try {
+                    scope = parent;
+                    frame = new Environment.PlcObject[frameSize];
+                    args.toArray(frame);
+                    for(int i = 0; i < ast.getStatements().size() - 1; i++) {
+                        visit(ast.getStatements().get(i));
+                    }
+
+                    if(ast.getStatements().getLast() instanceof Ast.Statement.Return r) {
+                        return Environment.create(visit(r).getValue());
+                    }
+                    else return Environment.NIL;
+                } finally {
+                    scope = caller;
+                    frame = callerFrame;
+                }
+            });
+            return Environment.NIL;
+        }
         try {
             scope.defineFunction(ast.getName(), ast.getParameters().size(), args -> {
                 scope = new Scope(scope);
@@ -94,6 +135,22 @@ public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
         return Environment.NIL;
     }
 
+    /**
+     * Returns the frame size the {@link Analyzer} set on {@code ast}, or -1 if
+     * it was not analyzed and its variables must be defined in scopes.
+     */
+    private static int frameSize(Ast.Function ast) {
+        return ast.hasFunction() ? ast.getFunction().getFrameSize() : -1;
+    }
+
+    /**
+     * Returns the frame slot of the variable accessed by {@code ast}, or -1
+     * if it is not held in the frame of the function being run.
+     */
+    private int slot(Ast.Expression.Access ast) {
+        return frame != null ? ast.getVariable().getSlot() : -1;
+    }
+
     @Override
     public Environment.PlcObject visit(Ast.Statement.Expression ast) throws RuntimeException {
         switch(ast.getExpression()) {
@@ -111,7 +168,10 @@ public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
 
     @Override
     public Environment.PlcObject visit(Ast.Statement.Declaration ast) {
-        if(ast.getValue().isPresent()) {
+        if(frame != null) {
+            frame[ast.getVariable().getSlot()] = ast.getValue().isPresent() ? visit(ast.getValue().get()) : Environment.NIL;
+        }
+        else if(ast.getValue().isPresent()) {
             scope.defineVariable(ast.getName(), true, visit(ast.getValue().get()));
         }
         else {
@@ -124,6 +184,17 @@ public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
     @Override
     public Environment.PlcObject visit(Ast.Statement.Assignment ast) {
         Ast.Expression.Access rec = requireType(Ast.Expression.Access.class, Environment.create(ast.getReceiver()));
+        int slot = slot(rec);
+        if(slot >= 0) {
+            if(rec.getOffset().isPresent()) {
+                List<Object> list = requireType(List.class, frame[slot]);
+                list.set(requireType(BigInteger.class, visit(rec.getOffset().get())).intValue(), visit(ast.getValue()).getValue());
+            }
+            else {
+                frame[slot] = visit(ast.getValue());
+            }
+            return Environment.NIL;
+        }
         Environment.Variable var = scope.lookupVariable(rec.getName());
         if(var.getMutable())
             if(rec.getOffset().isPresent()) {
@@ -144,43 +215,23 @@ public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
     @Override
     public Environment.PlcObject visit(Ast.Statement.If ast) {
         Boolean condition = requireType(Boolean.class, visit(ast.getCondition()));
-
-        try {
-            scope = new Scope(scope);
-            if(condition) {
-                for(Ast.Statement stmt : ast.getThenStatements()) {
-                    visit(stmt);
-                }
-            }
-            else {
-                for(Ast.Statement stmt : ast.getElseStatements()) {
-                    visit(stmt);
-                }
-            }
-        } finally {
-            scope = scope.getParent();
-        }
+        block(condition ? ast.getThenStatements() : ast.getElseStatements());
 
         return Environment.NIL;
     }
 
     @Override
     public Environment.PlcObject visit(Ast.Statement.Switch ast) {
-        try {
-            scope = new Scope(scope);
-            for(Ast.Statement.Case c : ast.getCases()) {
-                if(c.getValue().isPresent()) {
-                    if(visit(ast.getCondition()).getValue().equals(visit(c.getValue().get()).getValue())) {
-                        visit(c);
-                        break;
-                    }
-                }
-                else {
+        for(Ast.Statement.Case c : ast.getCases()) {
+            if(c.getValue().isPresent()) {
+                if(visit(ast.getCondition()).getValue().equals(visit(c.getValue().get()).getValue())) {
                     visit(c);
+                    break;
                 }
             }
-        } finally {
-            scope = scope.getParent();
+            else {
+                visit(c);
+            }
         }
 
         return Environment.NIL;
@@ -188,19 +239,60 @@ public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
 
     @Override
     public Environment.PlcObject visit(Ast.Statement.Case ast) {
-        for(Ast.Statement e : ast.getStatements()) {
-            visit(e);
-        }
+        block(ast.getStatements());
 
         return Environment.NIL;
     }
 
+    /**
+     * Executes {@code statements} as a block with a scope of its own, unless
+     * it declares no variables, or declares them in the frame, and so needs
+     * none.
+     */
+    private void block(List<Ast.Statement> statements) {
+        Scope parent = scope;
+        try {
+            if(declares(statements)) {
+                scope = new Scope(scope);
+            }
+            for(Ast.Statement stmt : statements) {
+                visit(stmt);
+            }
+        } finally {
+            scope = parent;
+        }
+    }
+
+    /**
+     * Returns whether executing {@code statements} as a block defines
+     * variables in its scope, which nested blocks do in their own.
+     */
+    private boolean declares(List<Ast.Statement> statements) {
+        if(frame != null) {
+            return false;
+        }
+        for(Ast.Statement statement : statements) {
+            if(statement instanceof Ast.Statement.Declaration) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Executes the body in one scope for the whole loop, cleared before each
+     * iteration, if it declares variables.
+     */
     @Override
     public Environment.PlcObject visit(Ast.Statement.While ast) {
+        Scope parent = scope;
+        Scope body = declares(ast.getStatements()) ? new Scope(parent) : parent;
         while(requireType(Boolean.class, visit(ast.getCondition()))) {
-            Scope parent = scope;
             try {
-                scope = new Scope(scope);
+                if(body != parent) {
+                    body.clearVariables();
+                }
+                scope = body;
                 for(int i = 0; i < ast.getStatements().size(); i++) {
                     visit(ast.getStatements().get(i));
                 }
@@ -230,86 +322,59 @@ public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
         return visit(ast.getExpression());
     }
 
+    /**
+     * Evaluates each operand exactly once, left to right, except that the
+     * right operand of {@code &&} and {@code ||} is only evaluated if needed.
+     * Each operator then dispatches on the classes of the operand values.
+     */
     @Override
     public Environment.PlcObject visit(Ast.Expression.Binary ast) {
-        return Environment.create(switch(ast.getOperator()) {
-            case "+" -> {
-               if(visit(ast.getLeft()).getValue() instanceof BigDecimal lbd && visit(ast.getRight()).getValue() instanceof BigDecimal rbd) {
-                   yield lbd.add(rbd);
-               }
-               else if(visit(ast.getLeft()).getValue() instanceof BigInteger lbi && visit(ast.getRight()).getValue() instanceof BigInteger rbi) {
-                   yield lbi.add(rbi);
-               }
-               else if(visit(ast.getLeft()).getValue() instanceof String ls && visit(ast.getRight()).getValue() instanceof String rs) {
-                   yield ls + rs;
-               }
-               else {
-                   throw new RuntimeException("Invalid additive operation, values are not of the same class.");
-               }
-            }
-            case "-" -> {
-                if(visit(ast.getLeft()).getValue() instanceof BigDecimal lbd) {
-                    yield lbd.subtract(requireType(BigDecimal.class, visit(ast.getRight())));
-                }
-                else if(visit(ast.getLeft()).getValue() instanceof BigInteger lbi) {
-                    yield lbi.subtract(requireType(BigInteger.class, visit(ast.getRight())));
-                }
-                else {
-                    throw new RuntimeException("Should be unreachable.");
-                }
+        String operator = ast.getOperator();
+        Environment.PlcObject lhs = visit(ast.getLeft());
+        switch(operator) {
+            case "&&" -> {
+                return Environment.create(requireType(Boolean.class, lhs) && requireType(Boolean.class, visit(ast.getRight())));
             }
-            case "*" -> {
-                if(visit(ast.getLeft()).getValue() instanceof BigDecimal && visit(ast.getRight()).getValue() instanceof BigDecimal) {
-                    yield requireType(BigDecimal.class, visit(ast.getLeft())).multiply(requireType(BigDecimal.class, visit(ast.getRight())));
-                }
-
-                if(visit(ast.getLeft()).getValue() instanceof BigInteger && visit(ast.getRight()).getValue() instanceof BigInteger) {
-                    yield requireType(BigInteger.class, visit(ast.getLeft())).multiply(requireType(BigInteger.class, visit(ast.getRight())));
-                }
-
-                throw new RuntimeException("Invalid multiplicative operation, values are not of the same class");
-            }
-            case "&&" -> requireType(Boolean.class, visit(ast.getLeft())) && requireType(Boolean.class, visit(ast.getRight()));
             case "||" -> {
-                Boolean l = requireType(Boolean.class, visit(ast.getLeft()));
-                if(l) {
-                    yield true;
-                }
-                else{
-                    yield requireType(Boolean.class, visit(ast.getRight()));
-                }
-            }
-            case "<" -> requireType(Comparable.class, visit(ast.getLeft())).compareTo(requireType(visit(ast.getLeft()).getValue().getClass(), visit(ast.getRight()))) < 0;
-            case ">" -> requireType(Comparable.class, visit(ast.getLeft())).compareTo(requireType(visit(ast.getLeft()).getValue().getClass(), visit(ast.getRight()))) > 0;
-            case "==" -> visit(ast.getLeft()).equals(requireType(visit(ast.getLeft()).getValue().getClass(), visit(ast.getRight())));
-            case "!=" -> {
-                var lhs = visit(ast.getLeft());
-                var rhs = visit(ast.getRight());
-                requireType(lhs.getValue().getClass(), rhs);
-                yield !lhs.getValue().equals(rhs.getValue());
+                return Environment.create(requireType(Boolean.class, lhs) || requireType(Boolean.class, visit(ast.getRight())));
             }
+        }
+        Environment.PlcObject rhs = visit(ast.getRight());
+        Object left = lhs.getValue(), right = rhs.getValue();
+        return Environment.create(switch(operator) {
+            case "+" -> switch(left) {
+                case BigInteger l when right instanceof BigInteger r -> l.add(r);
+                case BigDecimal l when right instanceof BigDecimal r -> l.add(r);
+                case String l when right instanceof String r -> l + r;
+                default -> throw new RuntimeException("Invalid additive operation, values are not of the same class.");
+            };
+            case "-" -> switch(left) {
+                case BigInteger l -> l.subtract(requireType(BigInteger.class, rhs));
+                case BigDecimal l -> l.subtract(requireType(BigDecimal.class, rhs));
+                default -> throw new RuntimeException("Should be unreachable.");
+            };
+            case "*" -> switch(left) {
+                case BigInteger l when right instanceof BigInteger r -> l.multiply(r);
+                case BigDecimal l when right instanceof BigDecimal r -> l.multiply(r);
+                default -> throw new RuntimeException("Invalid multiplicative operation, values are not of the same class");
+            };
             case "/" -> {
-                var l = visit(ast.getLeft());
-                var r = visit(ast.getRight());
-
                 try {
-                    if (l.getValue() instanceof BigDecimal lbd) {
-                        BigDecimal rbd = requireType(lbd.getClass(), r);
-                        yield lbd.divide(rbd, RoundingMode.HALF_EVEN);
-                    }
-                    else if(l.getValue() instanceof BigInteger lbi) {
-                        BigInteger rbi = requireType(lbi.getClass(), r);
-                        yield lbi.divide(rbi);
-                    }
-                    else {
-                        throw new RuntimeException("Should not be possible to get here.");
-                    }
+                    yield switch(left) {
+                        case BigInteger l -> l.divide(requireType(BigInteger.class, rhs));
+                        case BigDecimal l -> l.divide(requireType(BigDecimal.class, rhs), RoundingMode.HALF_EVEN);
+                        default -> throw new RuntimeException("Should not be possible to get here.");
+                    };
                 } catch(ArithmeticException err) {
                     throw new RuntimeException("Division error: " + err.getMessage());
                 }
             }
+            case "<" -> compare(lhs, rhs) < 0;
+            case ">" -> compare(lhs, rhs) > 0;
+            case "==" -> left.equals(requireType(left.getClass(), rhs));
+            case "!=" -> !left.equals(requireType(left.getClass(), rhs));
             case "^" -> {
-                BigInteger l = requireType(BigInteger.class, visit(ast.getLeft())), r = requireType(BigInteger.class, visit(ast.getRight()));
+                BigInteger l = requireType(BigInteger.class, lhs), r = requireType(BigInteger.class, rhs);
                 BigInteger result = l;
                 for(int i = 1; i < r.intValue(); i++) {
                     result = result.multiply(l);
@@ -320,9 +385,23 @@ public class Interpreter implements Ast.Visitor<Environment.PlcObject> {
         });
     }
 
+    /**
+     * Compares two values of the same class, directly for integers and
+     * decimals and otherwise through {@link Comparable}.
+     */
+    @SuppressWarnings("unchecked")
+    private static int compare(Environment.PlcObject lhs, Environment.PlcObject rhs) {
+        return switch(lhs.getValue()) {
+            case BigInteger l when rhs.getValue() instanceof BigInteger r -> l.compareTo(r);
+            case BigDecimal l when rhs.getValue() instanceof BigDecimal r -> l.compareTo(r);
+            default -> requireType(Comparable.class, lhs).compareTo(requireType(lhs.getValue().getClass(), rhs));
+        };
+    }
+
     @Override
     public Environment.PlcObject visit(Ast.Expression.Access ast) {
-        Environment.PlcObject var = scope.lookupVariable(ast.getName()).getValue();
+        int slot = slot(ast);
+        Environment.PlcObject var = slot >= 0 ? frame[slot] : scope.lookupVariable(ast.getName()).getValue();
         if(ast.getOffset().isPresent()) {
             List<?> list = requireType(List.class, var);
             BigInteger offset = requireType(BigInteger.class, visit(ast.getOffset().get()));
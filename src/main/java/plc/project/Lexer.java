@@ -161,6 +161,7 @@ public final class Lexer {
     }
 
     public void lexEscape() {
+        chars.escapes = true;
         chars.advance();
         if(peek("[bnrt'\"\\\\]")){
             match("[bnrt'\"\\\\]");
@@ -243,6 +244,7 @@ public final class Lexer {
         private final String input;
         private int index = 0;
         private int length = 0;
+        private boolean escapes = false;
 
         public CharStream(String input) {
             this.input = input;
@@ -263,12 +265,14 @@ public final class Lexer {
 
         public void skip() {
             length = 0;
+            escapes = false;
         }
 
         public Token emit(Token.Type type) {
             int start = index - length;
+            boolean escapes = this.escapes;
             skip();
-            return new Token(type, input.substring(start, index), start);
+            return new Token(type, input.substring(start, index), start, escapes);
         }
 
     }
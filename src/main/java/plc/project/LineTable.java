@@ -0,0 +1,102 @@
+package plc.project;
+
+import java.util.Arrays;
+
+/**
+ * The start offsets of each line of a source, in order, so a character index
+ * (such as {@link Token#getIndex()} or {@link ParseException#getIndex()}) can
+ * be turned into a line and column with a binary search instead of rescanning
+ * the source.
+ *
+ * Lines are ended by {@code \n}, {@code \r\n} or a lone {@code \r}. Lines and
+ * columns are numbered from 1, and columns count chars.
+ */
+public final class LineTable {
+
+    private int[] starts = new int[16];
+    private int size = 1; //line 1 always starts at 0
+
+    /**
+     * Builds the table for an entire source.
+     */
+    public static LineTable of(CharSequence source) {
+        LineTable lines = new LineTable();
+        for(int i = 0; i < source.length(); i++) {
+            lines.terminator(source, i);
+        }
+        return lines;
+    }
+
+    /**
+     * Records a line start after the character at {@code index} if it ends a
+     * line. Calls must be in increasing order of {@code index}.
+     */
+    void terminator(CharSequence source, int index) {
+        char c = source.charAt(index);
+        if(c == '\n' || c == '\r' && (index + 1 == source.length() || source.charAt(index + 1) != '\n')) {
+            add(index + 1);
+        }
+    }
+
+    /**
+     * Records that a line starts at {@code offset}, which must be greater than
+     * any previously added start.
+     */
+    void add(int offset) {
+        if(size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+        }
+        starts[size++] = offset;
+    }
+
+    public int getLineCount() {
+        return size;
+    }
+
+    /**
+     * Returns the offset of the first character of {@code line}.
+     */
+    public int getLineStart(int line) {
+        if(line < 1 || line > size) {
+            throw new IndexOutOfBoundsException("Line " + line + " out of bounds for " + size + " lines.");
+        }
+        return starts[line - 1];
+    }
+
+    /**
+     * Returns the line containing {@code offset}. Offsets past the last
+     * recorded line start are on the last line.
+     */
+    public int getLine(int offset) {
+        if(offset < 0) {
+            throw new IndexOutOfBoundsException("Negative offset " + offset + ".");
+        }
+        int low = 0, high = size - 1;
+        while(low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if(starts[mid] <= offset) {
+                low = mid;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * Returns the column of {@code offset} within its line.
+     */
+    public int getColumn(int offset) {
+        return offset - starts[getLine(offset) - 1] + 1;
+    }
+
+    /**
+     * Formats {@code offset} as {@code line:column}.
+     */
+    public String format(int offset) {
+        int line = getLine(offset);
+        return line + ":" + (offset - starts[line - 1] + 1);
+    }
+
+}
@@ -0,0 +1,67 @@
+package plc.project;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A lexer over the UTF-8 bytes of a memory-mapped source file, through a
+ * {@link Utf8Lexer}. Tokens reference their slice of the mapping and only
+ * decode a literal when {@link Token#getLiteral()} is called, so the source is
+ * never copied onto the heap as a whole.
+ *
+ * Token indices are char (UTF-16) indices, the same as lexing the decoded
+ * {@link String} with {@link DfaLexer}, where malformed UTF-8 is decoded as
+ * by {@code new String(bytes, UTF_8)}: one {@code U+FFFD} per maximal invalid
+ * subsequence.
+ */
+public final class MappedLexer {
+
+    private final Utf8Lexer lexer;
+
+    public MappedLexer(Path path) {
+        this(map(path));
+    }
+
+    public MappedLexer(ByteBuffer bytes) {
+        this.lexer = new Utf8Lexer(bytes);
+    }
+
+    private static ByteBuffer map(Path path) {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Source file " + path + " is too large to lex (" + channel.size() + " bytes).");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lexes the entire input, skipping whitespace.
+     */
+    public List<Token> lex() {
+        return lexer.lex();
+    }
+
+    /**
+     * Lexes the next token, skipping any whitespace before it. Returns
+     * {@code null} once the input is exhausted.
+     */
+    public Token lexToken() {
+        return lexer.lexToken();
+    }
+
+    /**
+     * Returns the lines of the input lexed so far, by char offset.
+     */
+    public LineTable getLineTable() {
+        return lexer.getLineTable();
+    }
+
+}
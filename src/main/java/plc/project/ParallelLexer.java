@@ -0,0 +1,82 @@
+package plc.project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Lexes large inputs by splitting them into chunks and lexing the chunks
+ * concurrently on a {@link ForkJoinPool}, each with a {@link DfaLexer} bounded
+ * to its chunk.
+ *
+ * Chunks end right after a newline. Character and string literals can't
+ * contain a raw newline (the lexer throws instead), so in any input which lexes
+ * successfully every newline is whitespace lexed from the start state and is a
+ * safe boundary; no scan for open literals is needed. If chunks fail, the
+ * exception from the earliest one is thrown, which is the same exception
+ * lexing sequentially would have thrown first.
+ */
+public final class ParallelLexer {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 18;
+
+    private ParallelLexer() {}
+
+    public static TokenBuffer lex(String input) {
+        return lex(input, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Lexes the input in chunks of roughly {@code chunkSize} characters, each
+     * extended to the next newline.
+     */
+    public static TokenBuffer lex(String input, ForkJoinPool pool, int chunkSize) {
+        if(chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, received " + chunkSize + ".");
+        }
+
+        List<Callable<TokenBuffer>> tasks = new ArrayList<>();
+        int start = 0;
+        while(start < input.length()) {
+            int end = boundary(input, start + chunkSize);
+            int from = start;
+            tasks.add(() -> new DfaLexer(input, from, end).lexBuffer());
+            start = end;
+        }
+        if(tasks.size() <= 1) {
+            return new DfaLexer(input).lexBuffer();
+        }
+
+        List<TokenBuffer> parts = new ArrayList<>();
+        for(Future<TokenBuffer> future : pool.invokeAll(tasks)) {
+            try {
+                parts.add(future.get());
+            } catch(ExecutionException e) {
+                if(e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return TokenBuffer.concat(input, parts);
+    }
+
+    /**
+     * Returns the index just after the first newline at or after {@code
+     * index}, or the end of the input.
+     */
+    private static int boundary(String input, int index) {
+        if(index >= input.length()) {
+            return input.length();
+        }
+        int newline = input.indexOf('\n', index);
+        return newline < 0 ? input.length() : newline + 1;
+    }
+
+}
@@ -0,0 +1,90 @@
+package plc.project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses large sources by splitting the tokens into chunks of whole top-level
+ * declarations and parsing the chunks concurrently on a {@link ForkJoinPool},
+ * each with a {@link Parser} bounded to its chunk. The globals and functions
+ * of each chunk are concatenated in order, so the result is the same {@link
+ * Ast.Source} as parsing sequentially.
+ *
+ * Chunks start at a {@code FUN}, {@code VAL}, {@code VAR} or {@code LIST}
+ * token, which only start declarations at the top level. The one exception is
+ * a keyword used as an identifier inside a function, which splits the function
+ * and makes a chunk fail; if any chunk fails, the whole source is parsed again
+ * sequentially, which either succeeds or throws the same exception as {@link
+ * Parser#parseSource()}.
+ */
+public final class ParallelParser {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+
+    private ParallelParser() {}
+
+    public static Ast.Source parse(TokenBuffer tokens) {
+        return parse(tokens, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Parses the tokens in chunks of roughly {@code chunkSize} tokens, each
+     * extended to the start of the next declaration.
+     */
+    public static Ast.Source parse(TokenBuffer tokens, ForkJoinPool pool, int chunkSize) {
+        if(chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, received " + chunkSize + ".");
+        }
+
+        List<Callable<Ast.Source>> tasks = new ArrayList<>();
+        int start = 0;
+        while(start < tokens.size()) {
+            int end = boundary(tokens, start + chunkSize);
+            int from = start;
+            tasks.add(() -> new Parser(tokens, from, end).parseSource());
+            start = end;
+        }
+        if(tasks.size() <= 1) {
+            return new Parser(tokens).parseSource();
+        }
+
+        List<Ast.Global> globals = new ArrayList<>();
+        List<Ast.Function> functions = new ArrayList<>();
+        for(Future<Ast.Source> future : pool.invokeAll(tasks)) {
+            try {
+                Ast.Source source = future.get();
+                globals.addAll(source.getGlobals());
+                functions.addAll(source.getFunctions());
+            } catch(ExecutionException e) {
+                if(e.getCause() instanceof RuntimeException) {
+                    return new Parser(tokens).parseSource();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return new Ast.Source(globals, functions);
+    }
+
+    /**
+     * Returns the index of the first declaration keyword at or after {@code
+     * index}, or the end of the tokens.
+     */
+    private static int boundary(TokenBuffer tokens, int index) {
+        for(int i = index; i < tokens.size(); i++) {
+            switch(tokens.getKind(i)) {
+                case TokenKind.FUN, TokenKind.VAL, TokenKind.VAR, TokenKind.LIST -> {
+                    return i;
+                }
+            }
+        }
+        return tokens.size();
+    }
+
+}
@@ -13,4 +13,18 @@ public final class ParseException extends RuntimeException {
         return index;
     }
 
+    /**
+     * Returns the line of the error in the source described by {@code lines}.
+     */
+    public int getLine(LineTable lines) {
+        return lines.getLine(index);
+    }
+
+    /**
+     * Returns the column of the error in the source described by {@code lines}.
+     */
+    public int getColumn(LineTable lines) {
+        return lines.getColumn(index);
+    }
+
 }
@@ -20,10 +20,84 @@ import java.util.Optional;
  */
 public final class Parser {
 
+    /**
+     * Binding powers of the binary operators by {@link TokenKind}, where 0 is
+     * not a binary operator. Higher powers bind tighter and all operators are
+     * left associative.
+     */
+    private static final byte[] BINDING_POWERS = new byte[TokenKind.COUNT];
+
+    static {
+        infix(1, TokenKind.AND, TokenKind.OR);
+        infix(2, TokenKind.LESS, TokenKind.GREATER, TokenKind.EQUAL, TokenKind.NOT_EQUAL);
+        infix(3, TokenKind.PLUS, TokenKind.MINUS);
+        infix(4, TokenKind.TIMES, TokenKind.DIVIDE, TokenKind.POWER);
+    }
+
+    private static void infix(int power, int... kinds) {
+        for(int kind : kinds) {
+            BINDING_POWERS[kind] = (byte) power;
+        }
+    }
+
     private final TokenStream tokens;
+    private List<ParseException> errors = null;
+    private boolean pratt = false;
+    private boolean stackSafe = false;
+    private AstInterner interner = null;
 
     public Parser(List<Token> tokens) {
-        this.tokens = new TokenStream(tokens);
+        this.tokens = new ListTokenStream(tokens);
+    }
+
+    public Parser(TokenBuffer tokens) {
+        this.tokens = new BufferTokenStream(tokens, 0, tokens.size());
+    }
+
+    /**
+     * Creates a parser over tokens {@code [from, to)} of the buffer, treating
+     * {@code to} as the end of the input.
+     */
+    Parser(TokenBuffer tokens, int from, int to) {
+        this.tokens = new BufferTokenStream(tokens, from, to);
+    }
+
+    /**
+     * Creates a parser which pulls tokens from the iterator (such as a {@link
+     * DfaLexer} or {@link StreamingLexer}) only as they are needed, so lexing
+     * and parsing are interleaved and the full token list never exists.
+     */
+    public Parser(Iterator<Token> tokens) {
+        this.tokens = new LazyTokenStream(tokens);
+    }
+
+    /**
+     * Selects whether {@link #parseExpression()} uses the operator precedence
+     * parser ({@link #parseBinaryExpression(int)}) instead of one method per
+     * precedence level. Both build the same trees.
+     */
+    public void setPratt(boolean pratt) {
+        this.pratt = pratt;
+    }
+
+    /**
+     * Selects whether blocks and expressions are parsed with an explicit stack
+     * ({@link #parseBlockIteratively()} and {@link
+     * #parseExpressionIteratively()}) instead of Java recursion, so nesting
+     * depth is limited by the heap instead of the thread stack. Both build the
+     * same trees and report the same errors.
+     */
+    public void setStackSafe(boolean stackSafe) {
+        this.stackSafe = stackSafe;
+    }
+
+    /**
+     * Sets the interner constant expressions are shared through as they are
+     * parsed, or {@code null} (the default) to create a node for every
+     * occurrence. See {@link AstInterner#intern(Ast.Expression)}.
+     */
+    public void setInterner(AstInterner interner) {
+        this.interner = interner;
     }
 
     /**
@@ -34,41 +108,76 @@ public final class Parser {
         List<Ast.Function> functions = new ArrayList<>();
 
         while(tokens.has(0)) {
-            if (peek("FUN")) {
-                functions.add(parseFunction());
-            } else if(peek("VAL") || peek("VAR") || peek("LIST")) {
-                globals.add(parseGlobal());
-            }
-            else {
-                throw new ParseException("Invalid source.", tokens.get(0).getIndex());
+            int start = tokens.index;
+            try {
+                switch(kind(0)) {
+                    case TokenKind.FUN -> functions.add(parseFunction());
+                    case TokenKind.VAL, TokenKind.VAR, TokenKind.LIST -> globals.add(parseGlobal());
+                    default -> throw new ParseException("Invalid source.", tokens.get(0).getIndex());
+                }
+            } catch(ParseException e) {
+                recover(e);
+                //Skip to the next declaration, which can't appear in a function.
+                if(tokens.index == start) {
+                    tokens.advance();
+                }
+                while(tokens.has(0) && !peek(TokenKind.FUN) && !peek(TokenKind.VAL) && !peek(TokenKind.VAR) && !peek(TokenKind.LIST)) {
+                    tokens.advance();
+                }
             }
         }
 
         return new Ast.Source(globals, functions);
     }
 
+    /**
+     * Parses the {@code source} rule, recovering from errors instead of
+     * stopping at the first one. Each error is added to {@code errors} and
+     * parsing resumes after the next {@code ;} or before the next {@code END}
+     * in a block, or at the next declaration at the top level. The returned
+     * source contains everything which could be parsed.
+     */
+    public Ast.Source parseSource(List<ParseException> errors) throws ParseException {
+        this.errors = errors;
+        try {
+            return parseSource();
+        } finally {
+            this.errors = null;
+        }
+    }
+
+    /**
+     * Records the error when recovering, otherwise rethrows it.
+     */
+    private void recover(ParseException e) throws ParseException {
+        if(errors == null) {
+            throw e;
+        }
+        errors.add(e);
+    }
+
     /**
      * Parses the {@code global} rule. This method should only be called if the
      * next tokens start a global, aka {@code LIST|VAL|VAR}.
      */
     public Ast.Global parseGlobal() throws ParseException {
-        if(match("VAR")) {
+        if(match(TokenKind.VAR)) {
             Ast.Global g = parseMutable();
-            if(!match(";")) {
+            if(!match(TokenKind.SEMICOLON)) {
                 throw new ParseException("Invalid global declaration, missing ';': ", tokens.get(-1).getIndex());
             }
             return g;
         }
-        else if(match("VAL")) {
+        else if(match(TokenKind.VAL)) {
             Ast.Global g = parseImmutable();
-            if(!match(";")) {
+            if(!match(TokenKind.SEMICOLON)) {
                 throw new ParseException("Invalid global declaration, missing ';': ", tokens.get(-1).getIndex());
             }
             return g;
         }
-        else if(match("LIST")) {
+        else if(match(TokenKind.LIST)) {
             Ast.Global g = parseList();
-            if(!match(";")) {
+            if(!match(TokenKind.SEMICOLON)) {
                 throw new ParseException("Invalid global declaration, missing ';': ", tokens.get(-1).getIndex());
             }
             return g;
@@ -90,7 +199,7 @@ public final class Parser {
         String lit = tokens.get(-1).getLiteral();
 
         //New type declarations:
-        if(!match(":")) {
+        if(!match(TokenKind.COLON)) {
             throw new ParseException("Invalid declaration of Global 'LIST', bad type declaration: ", tokens.get(-1).getIndex());
         }
         if(!match(Token.Type.IDENTIFIER)) {
@@ -99,16 +208,16 @@ public final class Parser {
 
         String type = tokens.get(-1).getLiteral();
 
-        if(!match("=")) {
+        if(!match(TokenKind.ASSIGN)) {
             throw new ParseException("Invalid declaration of Global 'LIST', must be initialized to a value: ", tokens.get(-1).getIndex());
         }
 
-        if(!match("[")) {
+        if(!match(TokenKind.LEFT_BRACKET)) {
             throw new ParseException("Invalid assignment of Global 'LIST': ", tokens.get(-1).getIndex());
         }
 
         Ast.Expression list = parsePlcList();
-        if(match("]")) {
+        if(match(TokenKind.RIGHT_BRACKET)) {
             return new Ast.Global(lit, type, true, Optional.of(list));
         }
         else {
@@ -120,11 +229,11 @@ public final class Parser {
         List<Ast.Expression> list = new ArrayList<>();
             list.add(parseExpression());
 
-        while(match(",")) {
+        while(match(TokenKind.COMMA)) {
             list.add(parseExpression());
         }
 
-        return new Ast.Expression.PlcList(list);
+        return intern(new Ast.Expression.PlcList(list));
     }
 
     /**
@@ -139,7 +248,7 @@ public final class Parser {
         String lit = tokens.get(-1).getLiteral();
 
         //New type declarations:
-        if(!match(":")) {
+        if(!match(TokenKind.COLON)) {
             throw new ParseException("Invalid declaration of Global 'LIST', bad type declaration: ", tokens.get(-1).getIndex());
         }
         if(!match(Token.Type.IDENTIFIER)) {
@@ -148,7 +257,7 @@ public final class Parser {
 
         String type = tokens.get(-1).getLiteral();
 
-        if(match("=")) {
+        if(match(TokenKind.ASSIGN)) {
             Ast.Expression e = parseExpression();
             return new Ast.Global(lit, type, true, Optional.of(e));
         }
@@ -169,7 +278,7 @@ public final class Parser {
         String lit = tokens.get(-1).getLiteral();
 
         //New type declarations:
-        if(!match(":")) {
+        if(!match(TokenKind.COLON)) {
             throw new ParseException("Invalid declaration of Global 'LIST', bad type declaration: ", tokens.get(-1).getIndex());
         }
         if(!match(Token.Type.IDENTIFIER)) {
@@ -178,7 +287,7 @@ public final class Parser {
 
         String type = tokens.get(-1).getLiteral();
 
-        if(!match("=")) {
+        if(!match(TokenKind.ASSIGN)) {
             throw new ParseException("Invalid IMMUTABLE declaration, missing '=': ", tokens.get(-1).getIndex());
         }
 
@@ -200,18 +309,16 @@ public final class Parser {
         }
 
         String lit = tokens.get(-1).getLiteral();
-        System.out.println(lit);
         List<String> params = new ArrayList<>(), pTypes = new ArrayList<>();
 
-        System.out.println(tokens.get(0).getLiteral());
-        if(!match("(")) {
+        if(!match(TokenKind.LEFT_PAREN)) {
             throw new ParseException("Invalid function declaration, missing open parentheses: ", tokens.get(-1).getIndex());
         }
 
         if(match(Token.Type.IDENTIFIER)) {
             params.add(tokens.get(-1).getLiteral());
             //New type declarations:
-            if(!match(":")) {
+            if(!match(TokenKind.COLON)) {
                 throw new ParseException("Invalid declaration of Global 'LIST', bad type declaration: ", tokens.get(-1).getIndex());
             }
             if(!match(Token.Type.IDENTIFIER)) {
@@ -219,13 +326,13 @@ public final class Parser {
             }
             pTypes.add(tokens.get(-1).getLiteral());
 
-            while(match(",")) {
+            while(match(TokenKind.COMMA)) {
                 if(!match(Token.Type.IDENTIFIER)) {
                     throw new ParseException("Invalid identifier in function signature: ", tokens.get(-1).getIndex());
                 }
                 params.add(tokens.get(-1).getLiteral());
                 //New type declarations:
-                if(!match(":")) {
+                if(!match(TokenKind.COLON)) {
                     throw new ParseException("Invalid declaration of Global 'LIST', bad type declaration: ", tokens.get(-1).getIndex());
                 }
                 if(!match(Token.Type.IDENTIFIER)) {
@@ -235,25 +342,25 @@ public final class Parser {
             }
         }
 
-        if(!match(")")) {
+        if(!match(TokenKind.RIGHT_PAREN)) {
             throw new ParseException("Invalid function declaration, missing closing parentheses: ", tokens.get(-1).getIndex());
         }
 
         String rT = null;
-        if(match(":")) {
+        if(match(TokenKind.COLON)) {
             if(!match(Token.Type.IDENTIFIER)) {
                 throw new ParseException("Return type is missing in type declaration or is not a valid identifier.", tokens.get(-1).getIndex());
             }
             rT = tokens.get(-1).getLiteral();
         }
 
-        if(!match("DO")) {
+        if(!match(TokenKind.DO)) {
             throw new ParseException("Invalid function declaration, missing 'DO': ", tokens.get(-1).getIndex());
         }
 
         List<Ast.Statement> statements = parseBlock();
 
-        if(!match("END")) {
+        if(!match(TokenKind.END)) {
             throw new ParseException("Invalid function declaration, missing 'END': ", tokens.get(-1).getIndex());
         }
 
@@ -266,54 +373,235 @@ public final class Parser {
      * preceding token indicates the opening a block of statements.
      */
     public List<Ast.Statement> parseBlock() throws ParseException {
+        if(stackSafe) {
+            return parseBlockIteratively();
+        }
         List<Ast.Statement> list = new ArrayList<>();
-        if(peek("END") || peek("ELSE") || peek("CASE") || peek("DEFAULT")) {
-            return list;
+        while(true) {
+            switch(kind(0)) {
+                case TokenKind.END, TokenKind.ELSE, TokenKind.CASE, TokenKind.DEFAULT -> {
+                    return list;
+                }
+                default -> {
+                    if(errors != null && !tokens.has(0)) {
+                        //Let the enclosing rule report the missing 'END'.
+                        return list;
+                    }
+                    int start = tokens.index;
+                    try {
+                        list.add(parseStatement());
+                    } catch(ParseException e) {
+                        recover(e);
+                        synchronize(start);
+                    }
+                }
+            }
         }
+    }
 
-        list.add(parseStatement());
-        while(!peek("END") && !peek("ELSE") && !peek("CASE") && !peek("DEFAULT")) {
-            list.add(parseStatement());
+    /**
+     * Skips the rest of a statement starting at token {@code start} after an
+     * error, up to and including the next {@code ;} or up to the next {@code
+     * END}.
+     */
+    private void synchronize(int start) {
+        while(tokens.has(0) && !match(TokenKind.SEMICOLON)) {
+            if(peek(TokenKind.END) && tokens.index > start) {
+                break;
+            }
+            tokens.advance();
         }
-
-        return list;
     }
 
     /**
-     * Parses the {@code statement} rule and delegates to the necessary method.
-     * If the next tokens do not start a declaration, if, while, or return
-     * statement, then it is an expression/assignment statement.
+     * Parses the {@code block} rule like {@link #parseBlock()}, but keeps the
+     * enclosing {@code IF}, {@code WHILE} and {@code SWITCH} statements on an
+     * explicit stack of {@link BlockFrame}s instead of recursing into them.
      */
-    public Ast.Statement parseStatement() throws ParseException {
-        if(match("LET")) {
-            return parseDeclarationStatement();
+    private List<Ast.Statement> parseBlockIteratively() throws ParseException {
+        Deque<BlockFrame> frames = new ArrayDeque<>();
+        frames.push(new BlockFrame(BlockFrame.ROOT, tokens.index, null));
+        while(true) {
+            BlockFrame frame = frames.peek();
+            if(frame.type == BlockFrame.SWITCH) {
+                try {
+                    parseNextCase(frames, frame);
+                } catch(ParseException e) {
+                    frames.pop();
+                    recover(e);
+                    synchronize(frame.start);
+                }
+                continue;
+            }
+
+            switch(kind(0)) {
+                case TokenKind.END, TokenKind.ELSE, TokenKind.CASE, TokenKind.DEFAULT -> {}
+                default -> {
+                    if(errors == null || tokens.has(0)) {
+                        int start = tokens.index;
+                        try {
+                            parseStatementIteratively(frames, frame);
+                        } catch(ParseException e) {
+                            recover(e);
+                            synchronize(start);
+                        }
+                        continue;
+                    }
+                }
+            }
+
+            //The end of the current block.
+            if(frame.type == BlockFrame.ROOT) {
+                return frame.statements;
+            }
+            frames.pop();
+            try {
+                closeBlock(frames, frame);
+            } catch(ParseException e) {
+                recover(e);
+                synchronize(frame.start);
+            }
         }
-        else if(match("SWITCH")) {
-            return parseSwitchStatement();
+    }
+
+    /**
+     * Parses one statement into the block of {@code frame}, pushing a new frame
+     * instead if the statement contains blocks.
+     */
+    private void parseStatementIteratively(Deque<BlockFrame> frames, BlockFrame frame) throws ParseException {
+        int start = tokens.index;
+        switch(kind(0)) {
+            case TokenKind.IF -> {
+                tokens.advance();
+                Ast.Expression condition = parseExpression();
+                if(!match(TokenKind.DO)) {
+                    throw new ParseException("Invalid IF statement, missing 'DO': ", tokens.get(-1).getIndex());
+                }
+                frames.push(new BlockFrame(BlockFrame.THEN, start, condition));
+            }
+            case TokenKind.WHILE -> {
+                tokens.advance();
+                Ast.Expression condition = parseExpression();
+                if(!match(TokenKind.DO)) {
+                    throw new ParseException("Invalid WHILE statement, missing 'DO': ", tokens.get(-1).getIndex());
+                }
+                frames.push(new BlockFrame(BlockFrame.WHILE, start, condition));
+            }
+            case TokenKind.SWITCH -> {
+                tokens.advance();
+                frames.push(new BlockFrame(BlockFrame.SWITCH, start, parseExpression()));
+            }
+            default -> frame.statements.add(parseStatement());
         }
-        else if(match("IF")) {
-            return parseIfStatement();
+    }
+
+    /**
+     * Parses the next {@code CASE} or {@code DEFAULT} of a switch, or its
+     * {@code END} once the default case has been parsed.
+     */
+    private void parseNextCase(Deque<BlockFrame> frames, BlockFrame frame) throws ParseException {
+        if(frame.defaulted) {
+            if(!match(TokenKind.END)) {
+                throw new ParseException("Invalid SWITCH statement, missing 'END': ", tokens.get(-1).getIndex());
+            }
+            frames.pop();
+            frames.peek().statements.add(new Ast.Statement.Switch(frame.condition, frame.cases));
         }
-        else if(match("WHILE")) {
-            return parseWhileStatement();
+        else if(!peek(TokenKind.DEFAULT) && match(TokenKind.CASE)) {
+            Ast.Expression value = parseExpression();
+            if (!match(TokenKind.COLON)) {
+                throw new ParseException("Invalid CASE statement, missing ':': ", tokens.get(-1).getIndex());
+            }
+            frames.push(new BlockFrame(BlockFrame.CASE, frame.start, value));
         }
-        else if(match("RETURN")) {
-            return parseReturnStatement();
+        else if(match(TokenKind.DEFAULT)) {
+            frame.defaulted = true;
+            frames.push(new BlockFrame(BlockFrame.CASE, frame.start, null));
         }
         else {
-            Ast.Expression e = parseExpression();
-            if(match("=")) {
-                Ast.Expression eq = parseExpression();
-                if(!match(";")) {
-                    throw new ParseException("Invalid ASSIGNMENT statement, missing ';': ", tokens.get(-1).getIndex());
+            throw new ParseException("Invalid CASE statement: ", tokens.get(-1).getIndex());
+        }
+    }
+
+    /**
+     * Finishes the statement of {@code frame}, which has been popped, once the
+     * end of its block is reached.
+     */
+    private void closeBlock(Deque<BlockFrame> frames, BlockFrame frame) throws ParseException {
+        BlockFrame parent = frames.peek();
+        switch(frame.type) {
+            case BlockFrame.THEN -> {
+                if(match(TokenKind.ELSE)) {
+                    frame.type = BlockFrame.ELSE;
+                    frame.thenStatements = frame.statements;
+                    frame.statements = new ArrayList<>();
+                    frames.push(frame);
+                    return;
                 }
-                return new Ast.Statement.Assignment(e, eq);
+                if(!match(TokenKind.END)) {
+                    throw new ParseException("Invalid IF statement, missing 'END': ", tokens.get(-1).getIndex());
+                }
+                parent.statements.add(new Ast.Statement.If(frame.condition, frame.statements, new ArrayList<>()));
             }
-            else {
-                if(!match(";")) {
-                    throw new ParseException("Invalid EXPRESSION statement, missing ';': ", tokens.get(-1).getIndex());
+            case BlockFrame.ELSE -> {
+                if(!match(TokenKind.END)) {
+                    throw new ParseException("Invalid IF statement, missing 'END': ", tokens.get(-1).getIndex());
+                }
+                parent.statements.add(new Ast.Statement.If(frame.condition, frame.thenStatements, frame.statements));
+            }
+            case BlockFrame.WHILE -> {
+                if(!match(TokenKind.END)) {
+                    throw new ParseException("Invalid WHILE statement, missing 'END': ", tokens.get(-1).getIndex());
+                }
+                parent.statements.add(new Ast.Statement.While(frame.condition, frame.statements));
+            }
+            case BlockFrame.CASE -> parent.cases.add(new Ast.Statement.Case(Optional.ofNullable(frame.condition), frame.statements));
+            default -> throw new AssertionError("Invalid block frame: " + frame.type);
+        }
+    }
+
+    /**
+     * Parses the {@code statement} rule and delegates to the necessary method.
+     * If the next tokens do not start a declaration, if, while, or return
+     * statement, then it is an expression/assignment statement.
+     */
+    public Ast.Statement parseStatement() throws ParseException {
+        switch(kind(0)) {
+            case TokenKind.LET -> {
+                tokens.advance();
+                return parseDeclarationStatement();
+            }
+            case TokenKind.SWITCH -> {
+                tokens.advance();
+                return parseSwitchStatement();
+            }
+            case TokenKind.IF -> {
+                tokens.advance();
+                return parseIfStatement();
+            }
+            case TokenKind.WHILE -> {
+                tokens.advance();
+                return parseWhileStatement();
+            }
+            case TokenKind.RETURN -> {
+                tokens.advance();
+                return parseReturnStatement();
+            }
+            default -> {
+                Ast.Expression e = parseExpression();
+                if(match(TokenKind.ASSIGN)) {
+                    Ast.Expression eq = parseExpression();
+                    if(!match(TokenKind.SEMICOLON)) {
+                        throw new ParseException("Invalid ASSIGNMENT statement, missing ';': ", tokens.get(-1).getIndex());
+                    }
+                    return new Ast.Statement.Assignment(e, eq);
+                }
+                else {
+                    if(!match(TokenKind.SEMICOLON)) {
+                        throw new ParseException("Invalid EXPRESSION statement, missing ';': ", tokens.get(-1).getIndex());
+                    }
+                    return new Ast.Statement.Expression(e);
                 }
-                return new Ast.Statement.Expression(e);
             }
         }
 
@@ -333,16 +621,16 @@ public final class Parser {
         String lit = tokens.get(-1).getLiteral();
         //New type declarations:
         String type = null;
-        if(match(":")) {
+        if(match(TokenKind.COLON)) {
             if(!match(Token.Type.IDENTIFIER))
                 throw new ParseException("Invalid declaration of Global 'LIST', bad type declaration: ", tokens.get(-1).getIndex());
 
             type = tokens.get(-1).getLiteral();
         }
 
-        if(match("=")) {
+        if(match(TokenKind.ASSIGN)) {
             Ast.Expression e = parseExpression();
-            if(!match(";")) {
+            if(!match(TokenKind.SEMICOLON)) {
                 throw new ParseException("Invalid DECLARATION statement, missing ';': ", tokens.get(-1).getIndex());
             }
 
@@ -360,18 +648,18 @@ public final class Parser {
      */
     public Ast.Statement.If parseIfStatement() throws ParseException {
         Ast.Expression condition = parseExpression();
-        if(!match("DO")) {
+        if(!match(TokenKind.DO)) {
             throw new ParseException("Invalid IF statement, missing 'DO': ", tokens.get(-1).getIndex());
         }
 
         List<Ast.Statement> statements = parseBlock(), elseStatements = new ArrayList<>();
 
         //System.out.println(tokens.get(0).getLiteral());
-        if(match("ELSE")) {
+        if(match(TokenKind.ELSE)) {
             elseStatements = parseBlock();
         }
 
-        if(!match("END")) {
+        if(!match(TokenKind.END)) {
             throw new ParseException("Invalid IF statement, missing 'END': ", tokens.get(-1).getIndex());
         }
 
@@ -387,12 +675,12 @@ public final class Parser {
         Ast.Expression condition = parseExpression();
         List<Ast.Statement.Case> cases = new ArrayList<>();
 
-        while(!peek("DEFAULT")) {
+        while(!peek(TokenKind.DEFAULT)) {
             cases.add(parseCaseStatement());
         }
 
         cases.add(parseCaseStatement());
-        if(!match("END")) {
+        if(!match(TokenKind.END)) {
             throw new ParseException("Invalid SWITCH statement, missing 'END': ", tokens.get(-1).getIndex());
         }
 
@@ -406,15 +694,15 @@ public final class Parser {
      * default block of a switch statement, aka {@code CASE} or {@code DEFAULT}.
      */
     public Ast.Statement.Case parseCaseStatement() throws ParseException {
-        if(match("CASE")) {
+        if(match(TokenKind.CASE)) {
             Ast.Expression value = parseExpression();
-            if (!match(":")) {
+            if (!match(TokenKind.COLON)) {
                 throw new ParseException("Invalid CASE statement, missing ':': ", tokens.get(-1).getIndex());
             }
 
             return new Ast.Statement.Case(Optional.of(value), parseBlock());
         }
-        else if(match("DEFAULT")) {
+        else if(match(TokenKind.DEFAULT)) {
             return new Ast.Statement.Case(Optional.empty(), parseBlock());
         }
         else {
@@ -430,13 +718,13 @@ public final class Parser {
     public Ast.Statement.While parseWhileStatement() throws ParseException {
         Ast.Expression condition = parseExpression();
 
-        if(!match("DO")) {
+        if(!match(TokenKind.DO)) {
             throw new ParseException("Invalid WHILE statement, missing 'DO': ", tokens.get(-1).getIndex());
         }
 
         List<Ast.Statement> statements = parseBlock();
 
-        if(!match("END")) {
+        if(!match(TokenKind.END)) {
             throw new ParseException("Invalid WHILE statement, missing 'END': ", tokens.get(-1).getIndex());
         }
 
@@ -451,7 +739,7 @@ public final class Parser {
     public Ast.Statement.Return parseReturnStatement() throws ParseException {
         Ast.Expression value = parseExpression();
 
-        if(!match(";")) {
+        if(!match(TokenKind.SEMICOLON)) {
             throw new ParseException("Invalid RETURN statement, missing ';': ", tokens.get(-1).getIndex());
         }
 
@@ -463,7 +751,153 @@ public final class Parser {
      * Parses the {@code expression} rule.
      */
     public Ast.Expression parseExpression() throws ParseException {
-        return parseLogicalExpression();
+        if(stackSafe) {
+            return parseExpressionIteratively();
+        }
+        return pratt ? parseBinaryExpression(0) : parseLogicalExpression();
+    }
+
+    /**
+     * Parses the {@code expression} rule without recursion. Binary operators
+     * are reduced through an operator stack by the {@link #BINDING_POWERS}
+     * table, and groups, function arguments and access indices are kept on a
+     * stack of {@link ExpressionFrame}s until they are closed.
+     */
+    private Ast.Expression parseExpressionIteratively() throws ParseException {
+        Deque<ExpressionFrame> frames = new ArrayDeque<>();
+        frames.push(new ExpressionFrame(ExpressionFrame.ROOT, null, 0));
+        List<Ast.Expression> operands = new ArrayList<>();
+        int[] operators = new int[16];
+        int count = 0;
+        boolean operand = true;
+
+        while(true) {
+            if(operand) {
+                int kind = kind(0);
+                boolean literal = kind == TokenKind.NIL || kind == TokenKind.TRUE || kind == TokenKind.FALSE;
+                if(match(TokenKind.LEFT_PAREN)) {
+                    frames.push(new ExpressionFrame(ExpressionFrame.GROUP, null, count));
+                }
+                else if(!literal && peek(Token.Type.IDENTIFIER, TokenKind.LEFT_PAREN)) {
+                    String name = tokens.get(0).getLiteral();
+                    tokens.advance();
+                    tokens.advance();
+                    if(match(TokenKind.RIGHT_PAREN)) {
+                        operands.add(new Ast.Expression.Function(name, new ArrayList<>()));
+                        operand = false;
+                    }
+                    else {
+                        frames.push(new ExpressionFrame(ExpressionFrame.CALL, name, count));
+                    }
+                }
+                else if(!literal && peek(Token.Type.IDENTIFIER, TokenKind.LEFT_BRACKET)) {
+                    String name = tokens.get(0).getLiteral();
+                    tokens.advance();
+                    tokens.advance();
+                    if(match(TokenKind.RIGHT_BRACKET)) {
+                        operands.add(new Ast.Expression.Access(Optional.empty(), name));
+                        operand = false;
+                    }
+                    else {
+                        frames.push(new ExpressionFrame(ExpressionFrame.ACCESS, name, count));
+                    }
+                }
+                else {
+                    //Everything else is a primary expression without nesting.
+                    operands.add(parsePrimaryExpression());
+                    operand = false;
+                }
+                continue;
+            }
+
+            ExpressionFrame frame = frames.peek();
+            int kind = kind(0), power = BINDING_POWERS[kind];
+            count = reduce(operands, operators, count, frame.operators, Math.max(power, 1));
+            if(power > 0) {
+                if(count == operators.length) {
+                    operators = Arrays.copyOf(operators, count * 2);
+                }
+                operators[count++] = kind;
+                tokens.advance();
+                operand = true;
+                continue;
+            }
+
+            Ast.Expression expression = operands.remove(operands.size() - 1);
+            switch(frame.type) {
+                case ExpressionFrame.ROOT -> {
+                    return expression;
+                }
+                case ExpressionFrame.GROUP -> {
+                    if(!match(TokenKind.RIGHT_PAREN)) {
+                        throw new ParseException("Invalid Grouping expression: ", tokens.get(-1).getIndex());
+                    }
+                    frames.pop();
+                    operands.add(intern(new Ast.Expression.Group(expression)));
+                }
+                case ExpressionFrame.CALL -> {
+                    frame.arguments.add(expression);
+                    if(match(TokenKind.COMMA)) {
+                        operand = true;
+                    }
+                    else if(match(TokenKind.RIGHT_PAREN)) {
+                        frames.pop();
+                        operands.add(new Ast.Expression.Function(frame.name, frame.arguments));
+                    }
+                    else {
+                        throw new ParseException("Invalid function call, missing closing parentheses: ", tokens.get(-1).getIndex());
+                    }
+                }
+                case ExpressionFrame.ACCESS -> {
+                    if(!match(TokenKind.RIGHT_BRACKET)) {
+                        throw new ParseException("Invalid access, missing closing bracket: ", tokens.get(-1).getIndex());
+                    }
+                    frames.pop();
+                    operands.add(new Ast.Expression.Access(Optional.of(expression), frame.name));
+                }
+                default -> throw new AssertionError("Invalid expression frame: " + frame.type);
+            }
+        }
+    }
+
+    /**
+     * Combines the operators on the stack above {@code base} which bind at
+     * least as tightly as {@code power} with their operands, returning the new
+     * operator count.
+     */
+    private int reduce(List<Ast.Expression> operands, int[] operators, int count, int base, int power) {
+        while(count > base && BINDING_POWERS[operators[count - 1]] >= power) {
+            Ast.Expression right = operands.remove(operands.size() - 1);
+            Ast.Expression left = operands.remove(operands.size() - 1);
+            operands.add(intern(new Ast.Expression.Binary(TokenKind.getLiteral(operators[--count]), left, right)));
+        }
+        return count;
+    }
+
+    /**
+     * Returns the node shared by the {@link #interner} for {@code expression},
+     * or {@code expression} itself when not interning.
+     */
+    private Ast.Expression intern(Ast.Expression expression) {
+        return interner == null ? expression : interner.intern(expression);
+    }
+
+    /**
+     * Parses a chain of binary operators binding tighter than {@code power}
+     * from the {@link #BINDING_POWERS} table, covering the {@code logical},
+     * {@code comparison}, {@code additive} and {@code multiplicative} rules in
+     * one loop.
+     */
+    public Ast.Expression parseBinaryExpression(int power) throws ParseException {
+        Ast.Expression left = parsePrimaryExpression();
+
+        int kind, next;
+        while((next = BINDING_POWERS[kind = kind(0)]) > power) {
+            tokens.advance();
+            left = intern(new Ast.Expression.Binary(TokenKind.getLiteral(kind), left, parseBinaryExpression(next)));
+        }
+
+        return left;
     }
 
     /**
@@ -472,10 +906,10 @@ public final class Parser {
     public Ast.Expression parseLogicalExpression() throws ParseException {
         Ast.Expression left = parseComparisonExpression();
 
-        while(match("&&") || match("||")) {
-            //if(match("&") || match("|"))
-            left = new Ast.Expression.Binary(tokens.get(-1).getLiteral(), left, parseComparisonExpression());
-            //else throw new ParseException("Invalid Logical Expression: ", tokens.get(0).getIndex());
+        int kind;
+        while((kind = kind(0)) == TokenKind.AND || kind == TokenKind.OR) {
+            tokens.advance();
+            left = intern(new Ast.Expression.Binary(TokenKind.getLiteral(kind), left, parseComparisonExpression()));
         }
 
         return left;
@@ -487,8 +921,10 @@ public final class Parser {
     public Ast.Expression parseComparisonExpression() throws ParseException {
         Ast.Expression left = parseAdditiveExpression();
 
-        while(match("<") || match(">") || match("==") || match("!=")) {
-            left = new Ast.Expression.Binary(tokens.get(-1).getLiteral(), left, parseAdditiveExpression());
+        int kind;
+        while((kind = kind(0)) == TokenKind.LESS || kind == TokenKind.GREATER || kind == TokenKind.EQUAL || kind == TokenKind.NOT_EQUAL) {
+            tokens.advance();
+            left = intern(new Ast.Expression.Binary(TokenKind.getLiteral(kind), left, parseAdditiveExpression()));
         }
 
         return left;
@@ -500,8 +936,10 @@ public final class Parser {
     public Ast.Expression parseAdditiveExpression() throws ParseException {
         Ast.Expression left = parseMultiplicativeExpression();
 
-        while(match("+") || match("-")) {
-            left = new Ast.Expression.Binary(tokens.get(-1).getLiteral(), left, parseMultiplicativeExpression());
+        int kind;
+        while((kind = kind(0)) == TokenKind.PLUS || kind == TokenKind.MINUS) {
+            tokens.advance();
+            left = intern(new Ast.Expression.Binary(TokenKind.getLiteral(kind), left, parseMultiplicativeExpression()));
         }
 
         return left;
@@ -513,8 +951,10 @@ public final class Parser {
     public Ast.Expression parseMultiplicativeExpression() throws ParseException {
         Ast.Expression left = parsePrimaryExpression();
 
-        while(match("*") || match("/") || match("^")) {
-            left = new Ast.Expression.Binary(tokens.get(-1).getLiteral(), left, parsePrimaryExpression());
+        int kind;
+        while((kind = kind(0)) == TokenKind.TIMES || kind == TokenKind.DIVIDE || kind == TokenKind.POWER) {
+            tokens.advance();
+            left = intern(new Ast.Expression.Binary(TokenKind.getLiteral(kind), left, parsePrimaryExpression()));
         }
 
         return left;
@@ -527,33 +967,37 @@ public final class Parser {
      * not strictly necessary.
      */
     public Ast.Expression parsePrimaryExpression() throws ParseException {
-        if(match("NIL")) {
-            return new Ast.Expression.Literal(null);
-        }
-        else if(match("TRUE")) {
-            return new Ast.Expression.Literal(true);
-        }
-        else if(match("FALSE")) {
-            return new Ast.Expression.Literal(false);
+        switch(kind(0)) {
+            case TokenKind.NIL -> {
+                tokens.advance();
+                return intern(new Ast.Expression.Literal(null));
+            }
+            case TokenKind.TRUE -> {
+                tokens.advance();
+                return intern(new Ast.Expression.Literal(true));
+            }
+            case TokenKind.FALSE -> {
+                tokens.advance();
+                return intern(new Ast.Expression.Literal(false));
+            }
         }
-        else if(match(Token.Type.INTEGER)) {
-            return new Ast.Expression.Literal(new BigInteger(tokens.get(-1).getLiteral()));
+
+        if(match(Token.Type.INTEGER)) {
+            return intern(new Ast.Expression.Literal(new BigInteger(tokens.get(-1).getLiteral())));
         }
         else if(match(Token.Type.DECIMAL)) {
-            return new Ast.Expression.Literal(new BigDecimal(tokens.get(-1).getLiteral()));
+            return intern(new Ast.Expression.Literal(new BigDecimal(tokens.get(-1).getLiteral())));
         }
         else if(match(Token.Type.CHARACTER)) {
-            String lit = escapeSequences(tokens.get(-1).getLiteral());
-            return new Ast.Expression.Literal(lit.charAt(0));
+            return intern(new Ast.Expression.Literal(tokens.getCharacter(-1)));
         }
         else if(match(Token.Type.STRING)) {
-            String lit = escapeSequences(tokens.get(-1).getLiteral());
-            return new Ast.Expression.Literal(lit);
+            return intern(new Ast.Expression.Literal(tokens.getString(-1)));
         }
-        else if(match("(")) {
+        else if(match(TokenKind.LEFT_PAREN)) {
             Ast.Expression e = parseExpression();
-            if(match(")")) {
-                return new Ast.Expression.Group(e);
+            if(match(TokenKind.RIGHT_PAREN)) {
+                return intern(new Ast.Expression.Group(e));
             }
             else {
                 throw new ParseException("Invalid Grouping expression: ", tokens.get(-1).getIndex());
@@ -562,31 +1006,31 @@ public final class Parser {
         else if(match(Token.Type.IDENTIFIER)) {
             String lit = tokens.get(-1).getLiteral();
 
-            if(match("(")) {
-                if(match(")")) {
+            if(match(TokenKind.LEFT_PAREN)) {
+                if(match(TokenKind.RIGHT_PAREN)) {
                     return new Ast.Expression.Function(lit, new ArrayList<>());
                 }
 
                 List<Ast.Expression> list = new ArrayList<>();
                 list.add(parseExpression());
-                while(match(",")) {
+                while(match(TokenKind.COMMA)) {
                     list.add(parseExpression());
                 }
 
-                if(match(")")) {
+                if(match(TokenKind.RIGHT_PAREN)) {
                     return new Ast.Expression.Function(lit, list);
                 }
                 else {
                     throw new ParseException("Invalid function call, missing closing parentheses: ", tokens.get(-1).getIndex());
                 }
             }
-            else if(match("[")) {
-                if(match("]")) {
+            else if(match(TokenKind.LEFT_BRACKET)) {
+                if(match(TokenKind.RIGHT_BRACKET)) {
                     return new Ast.Expression.Access(Optional.empty(), lit);
                 }
 
                 Ast.Expression e = parseExpression();
-                if(match("]")) {
+                if(match(TokenKind.RIGHT_BRACKET)) {
                     return new Ast.Expression.Access(Optional.of(e), lit);
                 }
                 else {
@@ -603,15 +1047,27 @@ public final class Parser {
         }
     }
 
-    private String escapeSequences(String s) {
-        return s.substring(1, s.length() - 1)
-                .replace("\\'", "'")
-                .replace("\\n", "\n")
-                .replace("\\t", "\t")
-                .replace("\\r", "\r")
-                .replace("\\\\b", "\b")
-                .replace("\\\\", "\\")
-                .replace("\\\"", "\"");
+    /**
+     * Decodes the escape sequences in {@code [start, end)} of {@code source} in
+     * one pass, into a buffer sized for the case without any.
+     */
+    private static String unescape(CharSequence source, int start, int end) {
+        char[] chars = new char[end - start];
+        int length = 0;
+        for(int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if(c == '\\' && i + 1 < end) {
+                c = switch(source.charAt(++i)) {
+                    case 'b' -> '\b';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    case 't' -> '\t';
+                    default -> source.charAt(i);
+                };
+            }
+            chars[length++] = c;
+        }
+        return new String(chars, 0, length);
     }
 
     /**
@@ -623,6 +1079,9 @@ public final class Parser {
      *
      * In other words, {@code Token(IDENTIFIER, "literal")} is matched by both
      * {@code peek(Token.Type.IDENTIFIER)} and {@code peek("literal")}.
+     *
+     * Keywords and operators can also be given as a {@link TokenKind}, which
+     * compares the kind the token was classified as instead of the literal.
      */
     private boolean peek(Object... patterns) {
         for(int i = 0; i < patterns.length; i++) {
@@ -630,12 +1089,17 @@ public final class Parser {
                 return false;
             }
             else if(patterns[i] instanceof Token.Type) {
-                if(!patterns[i].equals(tokens.get(i).getType())) {
+                if(!patterns[i].equals(tokens.getType(i))) {
                     return false;
                 }
             }
             else if(patterns[i] instanceof String) {
-                if(!patterns[i].equals(tokens.get(i).getLiteral())) {
+                if(!tokens.literalEquals(i, (String) patterns[i])) {
+                    return false;
+                }
+            }
+            else if(patterns[i] instanceof Integer) {
+                if(tokens.getKind(i) != (Integer) patterns[i]) {
                     return false;
                 }
             }
@@ -663,27 +1127,140 @@ public final class Parser {
         return peek;
     }
 
-    private static final class TokenStream {
+    /**
+     * Single kind version of {@link #peek(Object...)}, avoiding the varargs
+     * array for the common case.
+     */
+    private boolean peek(int kind) {
+        return kind(0) == kind;
+    }
 
-        private final List<Token> tokens;
-        private int index = 0;
+    /**
+     * Single kind version of {@link #match(Object...)}.
+     */
+    private boolean match(int kind) {
+        boolean peek = peek(kind);
 
-        private TokenStream(List<Token> tokens) {
-            this.tokens = tokens;
+        if(peek) {
+            tokens.advance();
+        }
+
+        return peek;
+    }
+
+    /**
+     * Returns the {@link TokenKind} of the token at the offset, or {@link
+     * TokenKind#NONE} if there is no such token.
+     */
+    private int kind(int offset) {
+        return tokens.has(offset) ? tokens.getKind(offset) : TokenKind.NONE;
+    }
+
+    /**
+     * A statement whose block is being parsed by {@link
+     * #parseBlockIteratively()}.
+     */
+    private static final class BlockFrame {
+
+        private static final int ROOT = 0, THEN = 1, ELSE = 2, WHILE = 3, SWITCH = 4, CASE = 5;
+
+        private int type;
+        private final int start; //token index of the statement, for recovery
+        private final Ast.Expression condition; //or case value
+        private List<Ast.Statement> statements = new ArrayList<>();
+        private List<Ast.Statement> thenStatements;
+        private final List<Ast.Statement.Case> cases = new ArrayList<>();
+        private boolean defaulted = false;
+
+        private BlockFrame(int type, int start, Ast.Expression condition) {
+            this.type = type;
+            this.start = start;
+            this.condition = condition;
+        }
+
+    }
+
+    /**
+     * A group, function call or access whose contents are being parsed by
+     * {@link #parseExpressionIteratively()}.
+     */
+    private static final class ExpressionFrame {
+
+        private static final int ROOT = 0, GROUP = 1, CALL = 2, ACCESS = 3;
+
+        private final int type;
+        private final String name;
+        private final int operators; //operator stack height when opened
+        private final List<Ast.Expression> arguments = new ArrayList<>();
+
+        private ExpressionFrame(int type, String name, int operators) {
+            this.type = type;
+            this.name = name;
+            this.operators = operators;
         }
 
+    }
+
+    private static abstract class TokenStream {
+
+        protected int index = 0;
+
         /**
          * Returns true if there is a token at index + offset.
          */
-        public boolean has(int offset) {
-            return index + offset < tokens.size();
-        }
+        public abstract boolean has(int offset);
 
         /**
          * Gets the token at index + offset.
          */
-        public Token get(int offset) {
-            return tokens.get(index + offset);
+        public abstract Token get(int offset);
+
+        /**
+         * Gets the type of the token at index + offset.
+         */
+        public Token.Type getType(int offset) {
+            return get(offset).getType();
+        }
+
+        /**
+         * Gets the {@link TokenKind} of the token at index + offset.
+         */
+        public int getKind(int offset) {
+            return get(offset).getKind();
+        }
+
+        /**
+         * Returns true if the literal of the token at index + offset equals the
+         * given literal.
+         */
+        public boolean literalEquals(int offset, String literal) {
+            return literal.equals(get(offset).getLiteral());
+        }
+
+        /**
+         * Returns the value of the string literal at index + offset: its
+         * literal without quotes, with escape sequences decoded only if the
+         * lexer found any.
+         */
+        public String getString(int offset) {
+            Token token = get(offset);
+            String literal = token.getLiteral();
+            if(token.hasEscapes()) {
+                return unescape(literal, 1, literal.length() - 1);
+            }
+            return literal.substring(1, literal.length() - 1);
+        }
+
+        /**
+         * Returns the value of the character literal at index + offset.
+         */
+        public char getCharacter(int offset) {
+            Token token = get(offset);
+            String literal = token.getLiteral();
+            if(token.hasEscapes()) {
+                return unescape(literal, 1, literal.length() - 1).charAt(0);
+            }
+            return literal.charAt(1);
         }
 
         /**
@@ -695,4 +1272,131 @@ public final class Parser {
 
     }
 
+    private static final class ListTokenStream extends TokenStream {
+
+        private final List<Token> tokens;
+
+        private ListTokenStream(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        @Override
+        public boolean has(int offset) {
+            return index + offset < tokens.size();
+        }
+
+        @Override
+        public Token get(int offset) {
+            return tokens.get(index + offset);
+        }
+
+    }
+
+    /**
+     * Reads types and literals straight out of a {@link TokenBuffer}, so
+     * {@link #peek(Object...)} never creates a {@link Token}.
+     */
+    private static final class BufferTokenStream extends TokenStream {
+
+        private final TokenBuffer tokens;
+        private final int end;
+
+        private BufferTokenStream(TokenBuffer tokens, int from, int to) {
+            this.tokens = tokens;
+            this.index = from;
+            this.end = to;
+        }
+
+        @Override
+        public boolean has(int offset) {
+            return index + offset < end;
+        }
+
+        @Override
+        public Token get(int offset) {
+            return tokens.get(index + offset);
+        }
+
+        @Override
+        public Token.Type getType(int offset) {
+            return tokens.getType(index + offset);
+        }
+
+        @Override
+        public int getKind(int offset) {
+            return tokens.getKind(index + offset);
+        }
+
+        @Override
+        public boolean literalEquals(int offset, String literal) {
+            return tokens.literalEquals(index + offset, literal);
+        }
+
+        /**
+         * Copies the value straight out of the source, without creating the
+         * literal with its quotes first.
+         */
+        @Override
+        public String getString(int offset) {
+            int i = index + offset;
+            int start = tokens.getStart(i) + 1;
+            int end = start + tokens.getLength(i) - 2;
+            if(tokens.hasEscapes(i)) {
+                return unescape(tokens.getSource(), start, end);
+            }
+            return tokens.getSource().subSequence(start, end).toString();
+        }
+
+        @Override
+        public char getCharacter(int offset) {
+            int i = index + offset;
+            int start = tokens.getStart(i) + 1;
+            if(tokens.hasEscapes(i)) {
+                return unescape(tokens.getSource(), start, start + tokens.getLength(i) - 2).charAt(0);
+            }
+            return tokens.getSource().charAt(start);
+        }
+
+    }
+
+    /**
+     * Pulls tokens on demand into a small ring buffer. The parser only looks a
+     * few tokens ahead and one behind (for error indices and literals), so a
+     * fixed capacity is enough.
+     */
+    private static final class LazyTokenStream extends TokenStream {
+
+        private static final int CAPACITY = 16;
+
+        private final Iterator<Token> iterator;
+        private final Token[] ring = new Token[CAPACITY];
+        private int filled = 0;
+
+        private LazyTokenStream(Iterator<Token> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean has(int offset) {
+            int target = index + offset;
+            while(filled <= target && iterator.hasNext()) {
+                ring[filled++ & (CAPACITY - 1)] = iterator.next();
+            }
+            return target < filled;
+        }
+
+        @Override
+        public Token get(int offset) {
+            int target = index + offset;
+            if(target < 0 || !has(offset)) {
+                throw new IndexOutOfBoundsException("Index " + target + " out of bounds for length " + filled + ".");
+            }
+            else if(target <= filled - CAPACITY) {
+                throw new IllegalStateException("Token " + target + " is no longer buffered.");
+            }
+            return ring[target & (CAPACITY - 1)];
+        }
+
+    }
+
 }
@@ -1,6 +1,7 @@
 package plc.project;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,8 +10,10 @@ import java.util.function.Function;
 public final class Scope {
 
     private final Scope parent;
-    private final Map<String, Environment.Variable> variables = new HashMap<>();
-    private final Map<String, Environment.Function> functions = new HashMap<>();
+    //Allocated on the first definition, so a scope defining nothing is a
+    //single object.
+    private Map<String, Environment.Variable> variables = Collections.emptyMap();
+    private Map<String, Environment.Function> functions = Collections.emptyMap();
 
     public Scope(Scope parent) {
         this.parent = parent;
@@ -29,11 +32,22 @@ public final class Scope {
             throw new RuntimeException("The variable " + name + " is already defined in this scope.");
         } else {
             Environment.Variable variable = new Environment.Variable(name, jvmName, type, mutable, value);
+            if (!(variables instanceof HashMap)) {
+                variables = new HashMap<>();
+            }
             variables.put(variable.getName(), variable);
             return variables.get(name);
         }
     }
 
+    /**
+     * Removes the variables defined in this scope, so it can be reused for
+     * another execution of the block it is the scope of.
+     */
+    void clearVariables() {
+        variables.clear();
+    }
+
     public Environment.Variable lookupVariable(String name) {
         if (variables.containsKey(name)) {
             return variables.get(name);
@@ -57,6 +71,9 @@ public final class Scope {
             throw new RuntimeException("The function " + name + "/" + parameterTypes.size() + " is already defined in this scope.");
         } else {
             Environment.Function func = new Environment.Function(name, jvmName, parameterTypes, returnType, function);
+            if (!(functions instanceof HashMap)) {
+                functions = new HashMap<>();
+            }
             functions.put(func.getName() + "/" + func.getParameterTypes().size(), func);
             return func;
         }
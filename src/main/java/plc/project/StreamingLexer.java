@@ -0,0 +1,175 @@
+package plc.project;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lexer which pulls characters from a {@link Reader} (or a UTF-8 {@link
+ * ReadableByteChannel}) through a sliding buffer instead of holding the whole
+ * program as a {@link String}. Tokens are handed out one at a time through
+ * {@link #hasNext()} and {@link #next()}, so memory is bounded by the buffer
+ * and the longest single token rather than the size of the input.
+ *
+ * Tokenization is done by the {@link DfaLexer} tables, so the tokens (and
+ * token indices, which count chars from the start of the input) are the same
+ * as {@code new DfaLexer(input).lex()}.
+ */
+public final class StreamingLexer implements Iterator<Token>, Closeable {
+
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    private final Reader reader;
+    private char[] buffer;
+    private int base = 0; //absolute index of buffer[0]
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private Token peeked = null;
+    private final LineTable lines = new LineTable();
+
+    public StreamingLexer(Reader reader) {
+        this(reader, DEFAULT_CAPACITY);
+    }
+
+    public StreamingLexer(Reader reader, int capacity) {
+        if(capacity < 2) {
+            throw new IllegalArgumentException("Buffer capacity must be at least 2, received " + capacity + ".");
+        }
+        this.reader = reader;
+        this.buffer = new char[capacity];
+    }
+
+    public StreamingLexer(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(peeked == null) {
+            peeked = lexToken();
+        }
+        return peeked != null;
+    }
+
+    @Override
+    public Token next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Token token = peeked;
+        peeked = null;
+        return token;
+    }
+
+    /**
+     * Returns the lines of the input read so far.
+     */
+    public LineTable getLineTable() {
+        return lines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Lexes the next token, skipping whitespace, or returns {@code null} at the
+     * end of the input.
+     */
+    private Token lexToken() {
+        while(has(0)) {
+            //Offsets are relative to position since reading may slide the buffer.
+            int state = DfaLexer.START, offset = 0;
+            int acceptLength = -1;
+            Token.Type acceptType = null;
+
+            while(state != DfaLexer.WHITESPACE) {
+                int next = DfaLexer.transition(state, DfaLexer.classify(has(offset) ? buffer[position + offset] : -1));
+                if(next == DfaLexer.STOP) {
+                    break;
+                }
+                else if(next < DfaLexer.STOP) {
+                    throw DfaLexer.error(next, base + position, base + position + offset);
+                }
+
+                state = next;
+                offset++;
+                if(state == DfaLexer.WHITESPACE || DfaLexer.accept(state) != null) {
+                    acceptLength = offset;
+                    acceptType = DfaLexer.accept(state);
+                }
+            }
+
+            if(state == DfaLexer.WHITESPACE) {
+                terminator();
+            }
+            int start = position;
+            position += acceptLength;
+            if(acceptType != null) {
+                return new Token(acceptType, new String(buffer, start, acceptLength), base + start);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records a line start if the whitespace character at {@link #position}
+     * ends a line.
+     */
+    private void terminator() {
+        char c = buffer[position];
+        if(c == '\n' || c == '\r' && !(has(1) && buffer[position + 1] == '\n')) {
+            lines.add(base + position + 1);
+        }
+    }
+
+    /**
+     * Returns true if there is a character at {@code position + offset},
+     * reading more input if necessary.
+     */
+    private boolean has(int offset) {
+        while(position + offset >= limit) {
+            if(eof) {
+                return false;
+            }
+            fill();
+        }
+        return true;
+    }
+
+    private void fill() {
+        //Discard everything before the current token, growing only if a single
+        //token doesn't fit in the buffer.
+        if(position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            base += position;
+            limit -= position;
+            position = 0;
+        }
+        if(limit == buffer.length) {
+            char[] grown = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+        }
+        try {
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if(read < 0) {
+                eof = true;
+            }
+            else {
+                limit += read;
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -1,5 +1,8 @@
 package plc.project;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 public final class Token {
 
     public enum Type {
@@ -12,13 +15,47 @@ public final class Token {
     }
 
     private final Type type;
-    private final String literal;
+    private String literal;
     private final int index;
+    private int kind = -1;
+    //Whether a character or string literal has escapes: 0 no, 1 yes, -1 not
+    //recorded by the lexer and found by scanning the literal on first use.
+    private byte escapes = -1;
+
+    //UTF-8 slice the literal is decoded from on first use, see Utf8Lexer.
+    private final ByteBuffer source;
+    private final int offset;
+    private final int length;
 
     public Token(Type type, String literal, int index) {
         this.type = type;
         this.literal = literal;
         this.index = index;
+        this.source = null;
+        this.offset = 0;
+        this.length = 0;
+    }
+
+    /**
+     * Creates a token for which the lexer recorded whether the literal has
+     * escape sequences, so the parser can use it without scanning.
+     */
+    Token(Type type, String literal, int index, boolean escapes) {
+        this(type, literal, index);
+        this.escapes = (byte) (escapes ? 1 : 0);
+    }
+
+    /**
+     * Creates a token whose literal is the UTF-8 bytes {@code [offset, offset +
+     * length)} of {@code source}, which is only decoded by {@link
+     * #getLiteral()}.
+     */
+    Token(Type type, ByteBuffer source, int offset, int length, int index) {
+        this.type = type;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.index = index;
     }
 
     public Type getType() {
@@ -26,6 +63,11 @@ public final class Token {
     }
 
     public String getLiteral() {
+        if (literal == null) {
+            byte[] bytes = new byte[length];
+            source.get(offset, bytes);
+            literal = new String(bytes, StandardCharsets.UTF_8);
+        }
         return literal;
     }
 
@@ -33,17 +75,38 @@ public final class Token {
         return index;
     }
 
+    /**
+     * Returns true if the literal contains a backslash, which in a character
+     * or string literal starts an escape sequence.
+     */
+    public boolean hasEscapes() {
+        if (escapes < 0) {
+            escapes = (byte) (getLiteral().indexOf('\\') >= 0 ? 1 : 0);
+        }
+        return escapes == 1;
+    }
+
+    /**
+     * Returns the {@link TokenKind} of the literal, classified on first use.
+     */
+    public int getKind() {
+        if (kind < 0) {
+            kind = TokenKind.classify(getLiteral());
+        }
+        return kind;
+    }
+
     @Override
     public boolean equals(Object obj) {
         return obj instanceof Token
                 && type == ((Token) obj).type
-                && literal.equals(((Token) obj).literal)
+                && getLiteral().equals(((Token) obj).getLiteral())
                 && index == ((Token) obj).index;
     }
 
     @Override
     public String toString() {
-        return type + "=" + literal + "@" + index;
+        return type + "=" + getLiteral() + "@" + index;
     }
 
 }
@@ -0,0 +1,201 @@
+package plc.project;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact, struct-of-arrays alternative to {@code List<Token>}. Each token is
+ * stored as its type ordinal, start index and length in parallel arrays over a
+ * shared source, so no {@link Token} or literal {@link String} exists until one
+ * is requested through {@link #get(int)} or {@link #getLiteral(int)}.
+ */
+public final class TokenBuffer {
+
+    private static final Token.Type[] TYPES = Token.Type.values();
+    //Set in a type byte if the literal has escape sequences.
+    private static final int ESCAPES = 0x40, TYPE = 0x3F;
+
+    private final CharSequence source;
+    private byte[] types;
+    private byte[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int size = 0;
+
+    public TokenBuffer(CharSequence source) {
+        this(source, 16);
+    }
+
+    public TokenBuffer(CharSequence source, int capacity) {
+        this.source = source;
+        this.types = new byte[capacity];
+        this.kinds = new byte[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+    }
+
+    public CharSequence getSource() {
+        return source;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(Token.Type type, int start, int length) {
+        boolean escapes = false;
+        if(type == Token.Type.CHARACTER || type == Token.Type.STRING) {
+            for(int k = start; k < start + length && !escapes; k++) {
+                escapes = source.charAt(k) == '\\';
+            }
+        }
+        add(type, start, length, escapes);
+    }
+
+    /**
+     * Adds a token for which the lexer recorded whether the literal has escape
+     * sequences, see {@link #hasEscapes(int)}.
+     */
+    public void add(Token.Type type, int start, int length, boolean escapes) {
+        if(size == types.length) {
+            int capacity = Math.max(16, size * 2);
+            types = Arrays.copyOf(types, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        types[size] = (byte) (type.ordinal() | (escapes ? ESCAPES : 0));
+        kinds[size] = (byte) TokenKind.classify(source, start, length);
+        starts[size] = start;
+        lengths[size] = length;
+        size++;
+    }
+
+    public Token.Type getType(int i) {
+        return TYPES[types[check(i)] & TYPE];
+    }
+
+    /**
+     * Returns true if token {@code i} is a character or string literal with
+     * escape sequences.
+     */
+    public boolean hasEscapes(int i) {
+        return (types[check(i)] & ESCAPES) != 0;
+    }
+
+    public int getKind(int i) {
+        return kinds[check(i)];
+    }
+
+    public int getStart(int i) {
+        return starts[check(i)];
+    }
+
+    public int getLength(int i) {
+        return lengths[check(i)];
+    }
+
+    public String getLiteral(int i) {
+        return source.subSequence(starts[check(i)], starts[i] + lengths[i]).toString();
+    }
+
+    /**
+     * Returns true if the literal of token {@code i} equals {@code literal},
+     * without materializing it.
+     */
+    public boolean literalEquals(int i, String literal) {
+        int length = lengths[check(i)];
+        if(length != literal.length()) {
+            return false;
+        }
+        int start = starts[i];
+        for(int k = 0; k < length; k++) {
+            if(source.charAt(start + k) != literal.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Token get(int i) {
+        return new Token(getType(i), getLiteral(i), starts[i], hasEscapes(i));
+    }
+
+    /**
+     * Returns a new buffer over {@code source} made of tokens {@code [0, from)}
+     * of this buffer, then the tokens of {@code replacement}, then tokens
+     * {@code [to, size)} of this buffer with their starts moved by {@code
+     * shift}.
+     */
+    TokenBuffer splice(CharSequence source, int from, int to, TokenBuffer replacement, int shift) {
+        int size = from + replacement.size + (this.size - to);
+        TokenBuffer buffer = new TokenBuffer(source, Math.max(16, size));
+        System.arraycopy(types, 0, buffer.types, 0, from);
+        System.arraycopy(kinds, 0, buffer.kinds, 0, from);
+        System.arraycopy(starts, 0, buffer.starts, 0, from);
+        System.arraycopy(lengths, 0, buffer.lengths, 0, from);
+
+        System.arraycopy(replacement.types, 0, buffer.types, from, replacement.size);
+        System.arraycopy(replacement.kinds, 0, buffer.kinds, from, replacement.size);
+        System.arraycopy(replacement.starts, 0, buffer.starts, from, replacement.size);
+        System.arraycopy(replacement.lengths, 0, buffer.lengths, from, replacement.size);
+
+        int tail = from + replacement.size;
+        System.arraycopy(types, to, buffer.types, tail, this.size - to);
+        System.arraycopy(kinds, to, buffer.kinds, tail, this.size - to);
+        System.arraycopy(lengths, to, buffer.lengths, tail, this.size - to);
+        for(int i = to; i < this.size; i++) {
+            buffer.starts[tail + i - to] = starts[i] + shift;
+        }
+        buffer.size = size;
+        return buffer;
+    }
+
+    /**
+     * Concatenates buffers over the same {@code source} into one.
+     */
+    static TokenBuffer concat(CharSequence source, List<TokenBuffer> parts) {
+        int size = 0;
+        for(TokenBuffer part : parts) {
+            size += part.size;
+        }
+        TokenBuffer buffer = new TokenBuffer(source, Math.max(16, size));
+        for(TokenBuffer part : parts) {
+            System.arraycopy(part.types, 0, buffer.types, buffer.size, part.size);
+            System.arraycopy(part.kinds, 0, buffer.kinds, buffer.size, part.size);
+            System.arraycopy(part.starts, 0, buffer.starts, buffer.size, part.size);
+            System.arraycopy(part.lengths, 0, buffer.lengths, buffer.size, part.size);
+            buffer.size += part.size;
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a read-only view of the buffer as tokens, materialized per call
+     * to {@link List#get(int)}.
+     */
+    public List<Token> asList() {
+        return new AbstractList<>() {
+
+            @Override
+            public Token get(int index) {
+                return TokenBuffer.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+        };
+    }
+
+    private int check(int i) {
+        if(i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size + ".");
+        }
+        return i;
+    }
+
+}
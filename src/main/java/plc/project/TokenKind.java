@@ -0,0 +1,105 @@
+package plc.project;
+
+import java.util.Arrays;
+
+/**
+ * Integer kinds for the keywords and operators the {@link Parser} matches on,
+ * so the parser can switch on an int instead of comparing literals.
+ *
+ * A kind is determined by a token's literal alone (like {@code
+ * peek("literal")}), and is looked up through a perfect hash table: every
+ * keyword and operator hashes to its own slot, so classifying a literal costs
+ * one hash and at most one comparison.
+ */
+public final class TokenKind {
+
+    public static final int NONE = 0;
+
+    public static final int FUN = 1, VAL = 2, VAR = 3, LIST = 4, DO = 5, END = 6,
+            LET = 7, IF = 8, ELSE = 9, SWITCH = 10, CASE = 11, DEFAULT = 12,
+            WHILE = 13, RETURN = 14, NIL = 15, TRUE = 16, FALSE = 17;
+
+    public static final int ASSIGN = 18, SEMICOLON = 19, COLON = 20, COMMA = 21,
+            LEFT_PAREN = 22, RIGHT_PAREN = 23, LEFT_BRACKET = 24, RIGHT_BRACKET = 25,
+            AND = 26, OR = 27, LESS = 28, GREATER = 29, EQUAL = 30, NOT_EQUAL = 31,
+            PLUS = 32, MINUS = 33, TIMES = 34, DIVIDE = 35, POWER = 36;
+
+    private static final String[] LITERALS = {
+            null,
+            "FUN", "VAL", "VAR", "LIST", "DO", "END", "LET", "IF", "ELSE", "SWITCH",
+            "CASE", "DEFAULT", "WHILE", "RETURN", "NIL", "TRUE", "FALSE",
+            "=", ";", ":", ",", "(", ")", "[", "]", "&&", "||", "<", ">", "==", "!=",
+            "+", "-", "*", "/", "^"
+    };
+
+    //The number of kinds, including NONE.
+    static final int COUNT = LITERALS.length;
+
+    private static final int SIZE = 128;
+    private static final byte[] TABLE = new byte[SIZE];
+    private static final int SEED;
+
+    static {
+        //Find a multiplier for which no two literals share a slot.
+        int seed = 1;
+        while(!tryBuild(seed)) {
+            seed += 2;
+        }
+        SEED = seed;
+    }
+
+    private static boolean tryBuild(int seed) {
+        Arrays.fill(TABLE, (byte) NONE);
+        for(int kind = 1; kind < LITERALS.length; kind++) {
+            String literal = LITERALS[kind];
+            int slot = hash(seed, literal.charAt(0), literal.charAt(literal.length() - 1), literal.length());
+            if(TABLE[slot] != NONE) {
+                return false;
+            }
+            TABLE[slot] = (byte) kind;
+        }
+        return true;
+    }
+
+    private static int hash(int seed, char first, char last, int length) {
+        return ((first * 31 + last) * 31 + length) * seed >>> 25;
+    }
+
+    /**
+     * Returns the kind of the literal {@code source[start, start + length)}, or
+     * {@link #NONE} if it is not a keyword or operator.
+     */
+    public static int classify(CharSequence source, int start, int length) {
+        if(length == 0 || length > 7) {
+            return NONE;
+        }
+        int kind = TABLE[hash(SEED, source.charAt(start), source.charAt(start + length - 1), length)];
+        if(kind == NONE) {
+            return NONE;
+        }
+        String literal = LITERALS[kind];
+        if(literal.length() != length) {
+            return NONE;
+        }
+        for(int i = 0; i < length; i++) {
+            if(source.charAt(start + i) != literal.charAt(i)) {
+                return NONE;
+            }
+        }
+        return kind;
+    }
+
+    public static int classify(String literal) {
+        return classify(literal, 0, literal.length());
+    }
+
+    /**
+     * Returns the literal of a kind, such as {@code "WHILE"} for {@link #WHILE}.
+     */
+    public static String getLiteral(int kind) {
+        return LITERALS[kind];
+    }
+
+    private TokenKind() {}
+
+}
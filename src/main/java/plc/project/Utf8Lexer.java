@@ -0,0 +1,338 @@
+package plc.project;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A lexer which runs the {@link DfaLexer} tables directly over UTF-8 bytes,
+ * without decoding the source to a {@link String} first. ASCII bytes are
+ * classified as they are; only multi-byte sequences are decoded, which is all
+ * that is needed to find the boundaries of tokens. Tokens reference their
+ * slice of the bytes and only decode a literal when {@link
+ * Token#getLiteral()} is called.
+ *
+ * {@link #scanToken()} reports tokens by byte offset. Byte offsets are mapped
+ * back to char (UTF-16) offsets on request through {@link
+ * #getCharOffset(int)}, which only records the position of each multi-byte
+ * sequence, so the mapping costs nothing for ASCII input. Tokens from {@link
+ * #lex()} have char indices and are the same as lexing the decoded {@link
+ * String} with {@link DfaLexer}, where malformed UTF-8 is decoded as by
+ * {@code new String(bytes, UTF_8)}: one {@code U+FFFD} per maximal invalid
+ * subsequence.
+ */
+public final class Utf8Lexer implements Iterator<Token> {
+
+    private final ByteBuffer bytes;
+    private final int limit;
+    private int position = 0; //byte offset
+    private char low = 0; //pending low surrogate of a 4 byte sequence
+    private final LineTable lines = new LineTable();
+    private Token peeked = null;
+
+    //The last token scanned.
+    private int start, end;
+    private char startLow, endLow;
+    private Token.Type type;
+
+    //End offsets of each multi-byte sequence, with the number of bytes more
+    //than chars up to that offset.
+    private int[] sequenceEnds = new int[16];
+    private int[] deltas = new int[16];
+    private int sequences = 0;
+
+    //Results of decode, to avoid allocating per character.
+    private int width;
+    private char pendingLow;
+
+    public Utf8Lexer(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Creates a lexer over the bytes of {@code bytes} from index 0 to its
+     * limit, ignoring its position.
+     */
+    public Utf8Lexer(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.limit = bytes.limit();
+    }
+
+    /**
+     * Lexes the entire input, skipping whitespace.
+     */
+    public List<Token> lex() {
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        while((token = lexToken()) != null) {
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /**
+     * Lexes the next token, skipping any whitespace before it. Returns
+     * {@code null} once the input is exhausted.
+     */
+    public Token lexToken() {
+        if(!scanToken()) {
+            return null;
+        }
+        int index = getCharIndex(start, startLow);
+        if(startLow != 0) {
+            return new Token(type, String.valueOf(startLow), index);
+        }
+        else if(endLow != 0) {
+            //A lone high surrogate, the rest of the sequence is the next token.
+            return new Token(type, String.valueOf((char) decode(start)), index);
+        }
+        return new Token(type, bytes, start, end - start, index);
+    }
+
+    /**
+     * Scans the next token, skipping whitespace, without creating a {@link
+     * Token}. Returns false once the input is exhausted; otherwise the token is
+     * available from {@link #getTokenType()}, {@link #getTokenStart()} and
+     * {@link #getTokenEnd()}.
+     */
+    public boolean scanToken() {
+        while(position < limit || low != 0) {
+            scan();
+            if(type != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Token.Type getTokenType() {
+        return type;
+    }
+
+    /**
+     * Returns the byte offset of the start of the last token. The two halves
+     * of a supplementary character lexed as separate tokens both span its
+     * whole sequence.
+     */
+    public int getTokenStart() {
+        return startLow != 0 ? start - 4 : start;
+    }
+
+    /**
+     * Returns the byte offset of the end of the last token.
+     */
+    public int getTokenEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the char offset of {@code offset}, which must be a byte offset
+     * at the start of a sequence within the bytes lexed so far.
+     */
+    public int getCharOffset(int offset) {
+        if(sequences == 0 || sequenceEnds[0] > offset) {
+            return offset;
+        }
+        int from = 0, to = sequences - 1;
+        while(from < to) {
+            int mid = (from + to + 1) >>> 1;
+            if(sequenceEnds[mid] <= offset) {
+                from = mid;
+            }
+            else {
+                to = mid - 1;
+            }
+        }
+        return offset - deltas[from];
+    }
+
+    /**
+     * Returns the lines of the input lexed so far, by char offset.
+     */
+    public LineTable getLineTable() {
+        return lines;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(peeked == null) {
+            peeked = lexToken();
+        }
+        return peeked != null;
+    }
+
+    @Override
+    public Token next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Token token = peeked;
+        peeked = null;
+        return token;
+    }
+
+    /**
+     * Runs the DFA from {@link #position}, leaving it after the token and
+     * setting the token fields ({@link #type} is null for whitespace).
+     */
+    private void scan() {
+        start = position;
+        startLow = low;
+        int state = DfaLexer.START;
+        int b = position;
+        char l = low;
+        int acceptPosition = -1;
+        char acceptLow = 0;
+        Token.Type acceptType = null;
+
+        while(state != DfaLexer.WHITESPACE) {
+            int unit, next;
+            char nextLow = 0;
+            if(l != 0) {
+                unit = l;
+                next = b;
+            }
+            else if(b >= limit) {
+                unit = -1;
+                next = b;
+            }
+            else if((unit = bytes.get(b)) >= 0) {
+                next = b + 1;
+            }
+            else {
+                unit = decode(b);
+                next = b + width;
+                nextLow = pendingLow;
+                record(next, width - (nextLow != 0 ? 2 : 1));
+            }
+
+            int transition = DfaLexer.transition(state, DfaLexer.classify(unit));
+            if(transition == DfaLexer.STOP) {
+                break;
+            }
+            else if(transition < DfaLexer.STOP) {
+                throw DfaLexer.error(transition, getCharIndex(start, startLow), getCharIndex(b, l));
+            }
+
+            state = transition;
+            b = next;
+            l = nextLow;
+            if(state == DfaLexer.WHITESPACE) {
+                if(unit == '\n' || unit == '\r' && (b == limit || bytes.get(b) != '\n')) {
+                    lines.add(getCharOffset(b));
+                }
+                acceptPosition = b;
+                acceptType = null;
+            }
+            else if(DfaLexer.accept(state) != null) {
+                acceptPosition = b;
+                acceptLow = l;
+                acceptType = DfaLexer.accept(state);
+            }
+        }
+
+        position = end = acceptPosition;
+        low = endLow = acceptLow;
+        type = acceptType;
+    }
+
+    /**
+     * Returns the char index of the unit at byte {@code offset}, which is the
+     * low surrogate of the sequence before it if {@code low} is pending.
+     */
+    private int getCharIndex(int offset, char low) {
+        return getCharOffset(offset) - (low != 0 ? 1 : 0);
+    }
+
+    /**
+     * Records a multi-byte sequence ending at {@code end} which is {@code
+     * delta} bytes longer than its chars, unless it was already recorded
+     * before backtracking.
+     */
+    private void record(int end, int delta) {
+        if(delta == 0 || sequences > 0 && sequenceEnds[sequences - 1] >= end) {
+            return;
+        }
+        if(sequences == sequenceEnds.length) {
+            sequenceEnds = Arrays.copyOf(sequenceEnds, sequences * 2);
+            deltas = Arrays.copyOf(deltas, sequences * 2);
+        }
+        sequenceEnds[sequences] = end;
+        deltas[sequences] = (sequences > 0 ? deltas[sequences - 1] : 0) + delta;
+        sequences++;
+    }
+
+    /**
+     * Decodes the UTF-16 unit starting at byte {@code b}, setting {@link
+     * #width} to the number of bytes used. For supplementary characters the
+     * high surrogate is returned and the low surrogate set in {@link
+     * #pendingLow}.
+     *
+     * Malformed input decodes as {@code new String(bytes, UTF_8)} does: each
+     * maximal prefix of a well-formed sequence is one {@code U+FFFD}, as is
+     * any other invalid byte. The second byte of a sequence is restricted by
+     * its lead, which rejects overlong forms and code points above {@code
+     * U+10FFFF}. An encoded surrogate is, as in the JDK, one {@code U+FFFD}
+     * for all three bytes.
+     */
+    private int decode(int b) {
+        pendingLow = 0;
+        int lead = bytes.get(b) & 0xFF;
+        if(lead < 0x80) {
+            width = 1;
+            return lead;
+        }
+
+        int length, codePoint, min = 0x80, max = 0xBF;
+        if(lead >= 0xC2 && lead <= 0xDF) {
+            length = 2;
+            codePoint = lead & 0x1F;
+        }
+        else if(lead >= 0xE0 && lead <= 0xEF) {
+            length = 3;
+            codePoint = lead & 0x0F;
+            if(lead == 0xE0) {
+                min = 0xA0;
+            }
+        }
+        else if(lead >= 0xF0 && lead <= 0xF4) {
+            length = 4;
+            codePoint = lead & 0x07;
+            if(lead == 0xF0) {
+                min = 0x90;
+            }
+            else if(lead == 0xF4) {
+                max = 0x8F;
+            }
+        }
+        else {
+            width = 1;
+            return '\uFFFD';
+        }
+
+        for(int k = 1; k < length; k++) {
+            int continuation = b + k < limit ? bytes.get(b + k) & 0xFF : -1;
+            if(continuation < min || continuation > max) {
+                width = k;
+                return '\uFFFD';
+            }
+            codePoint = (codePoint << 6) | (continuation & 0x3F);
+            min = 0x80;
+            max = 0xBF;
+        }
+
+        width = length;
+        if(codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            return '\uFFFD';
+        }
+        else if(codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            pendingLow = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+        return codePoint;
+    }
+
+}
@@ -1,6 +1,7 @@
 package plc.project;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -527,6 +528,37 @@ public final class AnalyzerTests {
         );
     }
 
+    @Test
+    public void testSlots() {
+        Ast.Source source = new Parser(new DfaLexer(String.join("\n",
+                "FUN f(a: Integer, b: Integer): Integer DO",
+                "    LET x = a;",
+                "    IF x > b DO LET y = 1; x = y; ELSE LET z = 2; LET w: Integer = z; END",
+                "    WHILE x < 10 DO LET v = x; x = v + 1; END",
+                "    LET u = x;",
+                "    RETURN u;",
+                "END",
+                "FUN main(): Integer DO RETURN f(1, 2); END"
+        )).lex()).parseSource();
+        new Analyzer(new Scope(null)).visit(source);
+        Ast.Function f = source.getFunctions().get(0);
+        //Parameters come first, and the slots of a block are reused after it.
+        Ast.Statement.If ifStatement = (Ast.Statement.If) f.getStatements().get(1);
+        Ast.Statement.While whileStatement = (Ast.Statement.While) f.getStatements().get(2);
+        Assertions.assertEquals(Arrays.asList(0, 1, 2, 3, 3, 4, 3, 3), Arrays.asList(
+                ((Ast.Expression.Access) ((Ast.Statement.Declaration) f.getStatements().get(0)).getValue().get()).getVariable().getSlot(),
+                ((Ast.Expression.Access) ((Ast.Expression.Binary) ifStatement.getCondition()).getRight()).getVariable().getSlot(),
+                ((Ast.Statement.Declaration) f.getStatements().get(0)).getVariable().getSlot(),
+                ((Ast.Statement.Declaration) ifStatement.getThenStatements().get(0)).getVariable().getSlot(),
+                ((Ast.Statement.Declaration) ifStatement.getElseStatements().get(0)).getVariable().getSlot(),
+                ((Ast.Statement.Declaration) ifStatement.getElseStatements().get(1)).getVariable().getSlot(),
+                ((Ast.Statement.Declaration) whileStatement.getStatements().get(0)).getVariable().getSlot(),
+                ((Ast.Statement.Declaration) f.getStatements().get(3)).getVariable().getSlot()
+        ));
+        Assertions.assertEquals(5, f.getFunction().getFrameSize());
+        Assertions.assertEquals(0, source.getFunctions().get(1).getFunction().getFrameSize());
+    }
+
     /**
      * Helper function for tests. If {@param expected} is {@code null}, analysis
      * is expected to throw a {@link RuntimeException}.
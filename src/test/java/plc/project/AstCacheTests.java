@@ -0,0 +1,152 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class AstCacheTests {
+
+    private static final String PROGRAM = String.join("\n",
+            "FUN add(x: Integer, y: Integer): Integer DO",
+            "    RETURN x + y;",
+            "END",
+            "FUN main(): Integer DO",
+            "    LET total = 0;",
+            "    LET i = 0;",
+            "    LET s = \"café\";",
+            "    WHILE i < 3 DO",
+            "        total = add(total, (i * 2));",
+            "        i = i + 1;",
+            "    END",
+            "    IF total > 5 DO print(s); ELSE print('c'); END",
+            "    SWITCH i CASE 3: print(1.5); DEFAULT print(NIL); END",
+            "    RETURN total;",
+            "END"
+    );
+
+    @ParameterizedTest
+    @MethodSource
+    void testRoundTrip(String test, String input) throws IOException {
+        Ast.Source source = new Parser(new DfaLexer(input).lex()).parseSource();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AstCache.write(source, false, out);
+        Assertions.assertEquals(source, AstCache.read(ByteBuffer.wrap(out.toByteArray())));
+    }
+
+    private static Stream<Arguments> testRoundTrip() {
+        return Stream.of(
+                Arguments.of("Empty", ""),
+                Arguments.of("Literals", "VAR x: Any = f(NIL, TRUE, FALSE, 123456789012345678901234567890, -1.050, '\\n', \"é中😀\", \"\");"),
+                Arguments.of("Globals", "VAR x: Integer = 0;\nVAL y: Decimal = 1.5;\nLIST l: Decimal = [1.5, 2.0];"),
+                Arguments.of("Program", PROGRAM)
+        );
+    }
+
+    @Test
+    void testAnalyzedRoundTrip() throws IOException {
+        Ast.Source source = analyze(PROGRAM);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AstCache.write(source, true, out);
+        Ast.Source read = AstCache.read(ByteBuffer.wrap(out.toByteArray()));
+        Assertions.assertEquals(source, read);
+        Assertions.assertEquals(generate(source), generate(read));
+        Assertions.assertEquals(3, read.getFunctions().get(1).getFunction().getFrameSize());
+        Ast.Statement.Declaration declaration = (Ast.Statement.Declaration) read.getFunctions().get(1).getStatements().get(2);
+        Assertions.assertEquals(2, declaration.getVariable().getSlot());
+    }
+
+    @Test
+    void testParse(@TempDir Path directory) {
+        AstCache cache = new AstCache(directory.resolve("cache"));
+        Ast.Source expected = new Parser(new DfaLexer(PROGRAM).lex()).parseSource();
+        Assertions.assertEquals(expected, cache.parse(PROGRAM));
+        Assertions.assertTrue(Files.exists(cache.getPath(AstCache.key(PROGRAM), false)));
+        Assertions.assertEquals(expected, cache.parse(PROGRAM));
+    }
+
+    @Test
+    void testAnalyze(@TempDir Path directory) {
+        AstCache cache = new AstCache(directory);
+        Ast.Source expected = analyze(PROGRAM);
+        Ast.Source first = cache.analyze(PROGRAM);
+        Ast.Source second = cache.analyze(PROGRAM);
+        Assertions.assertEquals(expected, first);
+        Assertions.assertEquals(expected, second);
+        Assertions.assertEquals(generate(expected), generate(second));
+    }
+
+    @Test
+    void testHitSkipsParser(@TempDir Path directory) throws IOException {
+        //An entry stored under the key of another source is returned as is,
+        //so a hit never lexes or parses the source.
+        AstCache cache = new AstCache(directory);
+        Ast.Source other = cache.parse("VAR x: Integer = 1;");
+        Files.copy(cache.getPath(AstCache.key("VAR x: Integer = 1;"), false), cache.getPath(AstCache.key("not a program"), false));
+        Assertions.assertEquals(other, cache.parse("not a program"));
+    }
+
+    @Test
+    void testCorruptEntry(@TempDir Path directory) throws IOException {
+        AstCache cache = new AstCache(directory);
+        Path path = cache.getPath(AstCache.key(PROGRAM), false);
+        Ast.Source expected = cache.parse(PROGRAM);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+        Assertions.assertEquals(expected, cache.parse(PROGRAM));
+        Assertions.assertArrayEquals(bytes, Files.readAllBytes(path));
+    }
+
+    @Test
+    void testDeepNesting(@TempDir Path directory) {
+        int depth = 20000;
+        String input = "FUN main() DO RETURN " + "(1 + ".repeat(depth) + "1" + ")".repeat(depth) + "; END";
+        AstCache cache = new AstCache(directory);
+        Ast.Source first = cache.parse(input);
+        Assertions.assertTrue(Files.exists(cache.getPath(AstCache.key(input), false)));
+        Ast.Source second = cache.parse(input);
+        Assertions.assertNotSame(first, second);
+        //Ast.equals recurses, so the trees are compared by their walks.
+        List<Object> nodes = new ArrayList<>();
+        AstCache.walk(first, node -> nodes.add(node instanceof Ast.Expression.Binary binary ? binary.getOperator() : node.getClass()));
+        List<Object> cached = new ArrayList<>();
+        AstCache.walk(second, node -> cached.add(node instanceof Ast.Expression.Binary binary ? binary.getOperator() : node.getClass()));
+        Assertions.assertEquals(4 + 3 * depth, nodes.size());
+        Assertions.assertEquals(Ast.Source.class, nodes.get(0));
+        Assertions.assertEquals(nodes, cached);
+    }
+
+    @Test
+    void testParseException(@TempDir Path directory) {
+        AstCache cache = new AstCache(directory);
+        Assertions.assertThrows(ParseException.class, () -> cache.parse("VAR x = ;"));
+        Assertions.assertFalse(Files.exists(cache.getPath(AstCache.key("VAR x = ;"), false)));
+    }
+
+    private static Ast.Source analyze(String input) {
+        Ast.Source source = new Parser(new DfaLexer(input).lex()).parseSource();
+        new Analyzer(new Scope(null)).visit(source);
+        return source;
+    }
+
+    private static String generate(Ast.Source source) {
+        StringWriter writer = new StringWriter();
+        new Generator(new PrintWriter(writer)).visit(source);
+        return writer.toString();
+    }
+
+}
@@ -0,0 +1,173 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+public class AstInternerTests {
+
+    private static final String PROGRAM = String.join("\n",
+            "FUN f(a: Integer, b: Integer): Integer DO",
+            "    LET x = a + 1;",
+            "    x = x + (a * 2) + (a * 2);",
+            "    WHILE x < 10 DO x = x + 1; END",
+            "    IF x > 1 && b > 1 DO print(\"big\"); ELSE print(\"big\"); END",
+            "    RETURN x + (1 * 2) + (1 * 2);",
+            "END",
+            "FUN main(): Integer DO",
+            "    LET y = 1.5;",
+            "    print(y + 1.50);",
+            "    print(f(1, 2));",
+            "    print(f(1, 2));",
+            "    RETURN 1;",
+            "END"
+    );
+
+    @Test
+    void testParseEquivalence() {
+        Ast.Source expected = new Parser(new DfaLexer(PROGRAM).lex()).parseSource();
+        for(int mode = 0; mode < 3; mode++) {
+            Parser parser = new Parser(new DfaLexer(PROGRAM).lex());
+            parser.setPratt(mode == 1);
+            parser.setStackSafe(mode == 2);
+            parser.setInterner(new AstInterner());
+            Assertions.assertEquals(expected, parser.parseSource(), "mode " + mode);
+        }
+    }
+
+    @Test
+    void testConstants() {
+        AstInterner interner = new AstInterner();
+        Ast.Expression.Binary first = (Ast.Expression.Binary) parse("(1 * 2) + (1 * 2)", interner);
+        Assertions.assertSame(first.getLeft(), first.getRight());
+        Ast.Expression.Binary second = (Ast.Expression.Binary) parse("1 * 2", interner);
+        Assertions.assertSame(((Ast.Expression.Group) first.getLeft()).getExpression(), second);
+        //Equal values of different types and scales are distinct literals.
+        Ast.Expression.Binary decimals = (Ast.Expression.Binary) parse("1.5 + 1.50", interner);
+        Assertions.assertNotSame(decimals.getLeft(), decimals.getRight());
+        Ast.Expression.Binary characters = (Ast.Expression.Binary) parse("'a' + \"a\"", interner);
+        Assertions.assertNotSame(characters.getLeft(), characters.getRight());
+    }
+
+    @Test
+    void testAccessNotSharedBeforeAnalysis() {
+        AstInterner interner = new AstInterner();
+        Ast.Expression.Binary binary = (Ast.Expression.Binary) parse("(x * 2) + (x * 2)", interner);
+        Assertions.assertNotSame(binary.getLeft(), binary.getRight());
+        Assertions.assertEquals(binary.getLeft(), binary.getRight());
+    }
+
+    @Test
+    void testListsNotShared() {
+        //A list is typed from the declared type of its global, not its values.
+        Parser parser = new Parser(new DfaLexer("LIST xs: Integer = [1, 2]; LIST ys: Any = [1, 2];").lex());
+        parser.setInterner(new AstInterner());
+        Ast.Source source = parser.parseSource();
+        Ast.Expression xs = source.getGlobals().get(0).getValue().get();
+        Ast.Expression ys = source.getGlobals().get(1).getValue().get();
+        Assertions.assertNotSame(xs, ys);
+        Analyzer analyzer = new Analyzer(new Scope(null));
+        source.getGlobals().forEach(analyzer::visit);
+        Assertions.assertEquals(Environment.Type.INTEGER, xs.getType());
+        Assertions.assertEquals(Environment.Type.ANY, ys.getType());
+    }
+
+    @Test
+    void testAnalyzeInterned() {
+        Ast.Source expected = analyze(new Parser(new DfaLexer(PROGRAM).lex()));
+        Parser parser = new Parser(new DfaLexer(PROGRAM).lex());
+        parser.setInterner(new AstInterner());
+        Ast.Source interned = analyze(parser);
+        Assertions.assertEquals(expected, interned);
+        Assertions.assertEquals(generate(expected), generate(interned));
+    }
+
+    @Test
+    void testInternAnalyzed() {
+        Ast.Source source = analyze(new Parser(new DfaLexer(PROGRAM).lex()));
+        Ast.Source interned = new AstInterner().internAnalyzed(source);
+        Assertions.assertEquals(source, interned);
+        Assertions.assertEquals(generate(source), generate(interned));
+        Assertions.assertTrue(count(interned) < count(source));
+
+        //x + (a * 2) + (a * 2): the accesses of a, and so the groups, are shared.
+        Ast.Statement.Assignment assignment = (Ast.Statement.Assignment) interned.getFunctions().get(0).getStatements().get(1);
+        Ast.Expression.Binary sum = (Ast.Expression.Binary) assignment.getValue();
+        Assertions.assertSame(((Ast.Expression.Binary) sum.getLeft()).getRight(), sum.getRight());
+        //The calls f(1, 2) are shared, but not the distinct variables x and y.
+        Ast.Function main = interned.getFunctions().get(1);
+        Assertions.assertSame(
+                ((Ast.Expression.Function) ((Ast.Statement.Expression) main.getStatements().get(2)).getExpression()).getArguments().get(0),
+                ((Ast.Expression.Function) ((Ast.Statement.Expression) main.getStatements().get(3)).getExpression()).getArguments().get(0));
+        Ast.Statement.Declaration declaration = (Ast.Statement.Declaration) main.getStatements().get(0);
+        Assertions.assertSame(((Ast.Statement.Declaration) source.getFunctions().get(1).getStatements().get(0)).getVariable(), declaration.getVariable());
+    }
+
+    private static Ast.Expression parse(String input, AstInterner interner) {
+        Parser parser = new Parser(new DfaLexer(input).lex());
+        parser.setInterner(interner);
+        return parser.parseExpression();
+    }
+
+    private static Ast.Source analyze(Parser parser) {
+        Ast.Source source = parser.parseSource();
+        new Analyzer(new Scope(null)).visit(source);
+        return source;
+    }
+
+    private static String generate(Ast.Source source) {
+        StringWriter writer = new StringWriter();
+        new Generator(new PrintWriter(writer)).visit(source);
+        return writer.toString();
+    }
+
+    /**
+     * Counts the distinct expression nodes reachable from {@code source}.
+     */
+    private static int count(Ast.Source source) {
+        Set<Ast> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(Ast.Function function : source.getFunctions()) {
+            for(Ast.Statement statement : function.getStatements()) {
+                collect(statement, nodes);
+            }
+        }
+        return nodes.size();
+    }
+
+    private static void collect(Ast ast, Set<Ast> nodes) {
+        if(ast instanceof Ast.Expression && !nodes.add(ast)) {
+            return;
+        }
+        switch(ast) {
+            case Ast.Statement.Expression statement -> collect(statement.getExpression(), nodes);
+            case Ast.Statement.Declaration statement -> statement.getValue().ifPresent(value -> collect(value, nodes));
+            case Ast.Statement.Assignment statement -> {
+                collect(statement.getReceiver(), nodes);
+                collect(statement.getValue(), nodes);
+            }
+            case Ast.Statement.If statement -> {
+                collect(statement.getCondition(), nodes);
+                statement.getThenStatements().forEach(child -> collect(child, nodes));
+                statement.getElseStatements().forEach(child -> collect(child, nodes));
+            }
+            case Ast.Statement.While statement -> {
+                collect(statement.getCondition(), nodes);
+                statement.getStatements().forEach(child -> collect(child, nodes));
+            }
+            case Ast.Statement.Return statement -> collect(statement.getValue(), nodes);
+            case Ast.Expression.Group expression -> collect(expression.getExpression(), nodes);
+            case Ast.Expression.Binary expression -> {
+                collect(expression.getLeft(), nodes);
+                collect(expression.getRight(), nodes);
+            }
+            case Ast.Expression.Function expression -> expression.getArguments().forEach(argument -> collect(argument, nodes));
+            default -> {}
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CompiledProgramTests {
+
+    /**
+     * Programs on which the compiled program and the tree-walking interpreter
+     * agree: every function ends with its only {@code RETURN}.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void testParity(String test, String input) {
+        Assertions.assertEquals(run(input, false), run(input, true));
+    }
+
+    private static Stream<Arguments> testParity() {
+        return Stream.of(
+                Arguments.of("Arithmetic", "FUN main(): Integer DO print(1 + 2 * 3 - 4 / 2); print(1.5 * 2.0 - 0.5 / 2.0); RETURN 7 - 2; END"),
+                Arguments.of("Comparison", "FUN main(): Integer DO print(1 < 2); print(2.5 > 2.5); print('a' < 'b'); print(\"b\" > \"a\"); print(1 == 1); print(1 != 1); RETURN 0; END"),
+                Arguments.of("Logical", "FUN main(): Integer DO print(TRUE && FALSE); print(FALSE && TRUE); RETURN 0; END"),
+                Arguments.of("Strings", "FUN main(): Integer DO LET s = \"a\" + \"b\"; print(s + \"c\"); RETURN 0; END"),
+                Arguments.of("Loop", String.join("\n",
+                        "FUN main(): Integer DO",
+                        "    LET i = 0;",
+                        "    LET total = 0;",
+                        "    WHILE i < 10 DO",
+                        "        LET square = i * i;",
+                        "        IF square > 20 DO total = total + square; ELSE total = total - 1; END",
+                        "        i = i + 1;",
+                        "    END",
+                        "    RETURN total;",
+                        "END")),
+                Arguments.of("Calls", String.join("\n",
+                        "FUN square(x: Integer): Integer DO RETURN x * x; END",
+                        "FUN sum(x: Integer, y: Integer): Integer DO RETURN square(x) + square(y); END",
+                        "FUN main(): Integer DO RETURN sum(3, 4); END")),
+                Arguments.of("Overflow", String.join("\n",
+                        "FUN main(): Integer DO",
+                        "    LET x = 2147483647;",
+                        "    LET i = 0;",
+                        "    WHILE i < 5 DO x = x * 2147483647; i = i + 1; END",
+                        "    print(x);",
+                        "    LET y = x;",
+                        "    WHILE y > 2147483647 DO y = y / 2147483647; END",
+                        "    print(y == 2147483647);",
+                        "    LET m = y * y * 2;",
+                        "    print(m + m);",
+                        "    print(m - (0 - m) - m - m == 0);",
+                        "    print(0 - m - m < 0 - m);",
+                        "    print(x - x == 0);",
+                        "    RETURN m * 1 + 1;",
+                        "END")),
+                Arguments.of("Switch", String.join("\n",
+                        "FUN main(): Integer DO",
+                        "    LET c = 'b';",
+                        "    SWITCH c CASE 'a': print(1); CASE 'b': print(2); c = 'x'; DEFAULT print(3); END",
+                        "    SWITCH c CASE 'a': print(1); DEFAULT print(c); END",
+                        "    RETURN 0;",
+                        "END"))
+        );
+    }
+
+    @Test
+    void testEarlyReturn() {
+        String input = String.join("\n",
+                "FUN fib(n: Integer): Integer DO",
+                "    IF n < 2 DO RETURN n; END",
+                "    RETURN fib(n - 1) + fib(n - 2);",
+                "END",
+                "FUN find(): Integer DO",
+                "    LET i = 0;",
+                "    WHILE TRUE DO",
+                "        IF i * i > 50 DO RETURN i; END",
+                "        i = i + 1;",
+                "    END",
+                "    RETURN 0 - 1;",
+                "END",
+                "FUN main(): Integer DO print(find()); RETURN fib(15); END");
+        Assertions.assertEquals(Arrays.asList(BigInteger.valueOf(610), "8"), run(input, true));
+    }
+
+    @Test
+    void testNoReturn() {
+        Assertions.assertEquals(Arrays.asList(Environment.NIL.getValue(), "last"),
+                run("FUN main() DO LET x = 1; print(\"last\"); END", true));
+    }
+
+    @Test
+    void testPower() {
+        Assertions.assertEquals(Arrays.asList(new BigInteger("-9223372036854775808"), "4611686018427387904", "18446744073709551616", "1", "true"),
+                run("FUN main(): Integer DO print(2 ^ 62); print(2 ^ 64); print(3 ^ 0); print(3 ^ 40 == (3 ^ 20) * (3 ^ 20)); RETURN (0 - 2) ^ 63; END", true));
+    }
+
+    @Test
+    void testStringConcatenation() {
+        Assertions.assertEquals(Arrays.asList(BigInteger.ZERO, "a1", "1.5b", "ctrue"),
+                run("FUN main(): Integer DO print(\"a\" + 1); print(1.5 + \"b\"); print(\"c\" + TRUE); RETURN 0; END", true));
+    }
+
+    @Test
+    void testGlobals() {
+        //Analyzing a program with globals fails, but they need no analysis.
+        Ast.Source source = new Parser(new DfaLexer("VAR x: Integer = 1; VAL y: String = \"y\"; LIST l: Integer = [x, 3]; FUN main(): Integer DO x = 2; l[1] = x; RETURN l[0]; END").lex()).parseSource();
+        Interpreter interpreter = new Interpreter(new Scope(null));
+        interpreter.setCompiled(true);
+        Assertions.assertEquals(BigInteger.ONE, interpreter.visit(source).getValue());
+        Assertions.assertEquals(BigInteger.TWO, interpreter.getScope().lookupVariable("x").getValue().getValue());
+        Assertions.assertEquals(Arrays.asList(BigInteger.ONE, BigInteger.TWO), interpreter.getScope().lookupVariable("l").getValue().getValue());
+        Assertions.assertFalse(interpreter.getScope().lookupVariable("y").getMutable());
+    }
+
+    @Test
+    void testImmutableAssignment() {
+        Ast.Source source = new Parser(new DfaLexer("VAL x: Integer = 1; FUN main(): Integer DO x = 2; RETURN x; END").lex()).parseSource();
+        Interpreter interpreter = new Interpreter(new Scope(null));
+        interpreter.setCompiled(true);
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class, () -> interpreter.visit(source));
+        Assertions.assertEquals("Attempted to assign a value to an immutable variable.", exception.getMessage());
+    }
+
+    @Test
+    void testDivisionByZero() {
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class, () -> run("FUN main(): Integer DO RETURN 1 / 0; END", true));
+        Assertions.assertTrue(exception.getMessage().startsWith("Division error: "));
+    }
+
+    @Test
+    void testRunTwice() {
+        Ast.Source source = analyze("FUN twice(x: Decimal): Decimal DO RETURN x * 2.0; END FUN main(): Integer DO print(twice(1.25)); RETURN 1; END");
+        CompiledProgram program = new CompiledProgram(source);
+        for(int i = 0; i < 2; i++) {
+            Interpreter interpreter = new Interpreter(new Scope(null));
+            Assertions.assertEquals(BigInteger.ONE, program.run(interpreter.getScope()).getValue());
+            Assertions.assertEquals(new BigDecimal("2.500"), interpreter.getScope().lookupFunction("twice", 1).invoke(Arrays.asList(Environment.create(new BigDecimal("1.25")))).getValue());
+        }
+    }
+
+    /**
+     * Runs {@code input} and returns the result of main followed by each line
+     * printed.
+     */
+    private static List<Object> run(String input, boolean compiled) {
+        Ast.Source source = analyze(input);
+        PrintStream sysout = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+        try {
+            Interpreter interpreter = new Interpreter(new Scope(null));
+            interpreter.setCompiled(compiled);
+            List<Object> result = new ArrayList<>();
+            result.add(interpreter.visit(source).getValue());
+            if(!out.toString().isEmpty()) {
+                result.addAll(Arrays.asList(out.toString().split(System.lineSeparator())));
+            }
+            return result;
+        } finally {
+            System.setOut(sysout);
+        }
+    }
+
+    private static Ast.Source analyze(String input) {
+        Ast.Source source = new Parser(new DfaLexer(input).lex()).parseSource();
+        new Analyzer(new Scope(null)).visit(source);
+        return source;
+    }
+
+}
@@ -0,0 +1,108 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Parity tests checking {@link DfaLexer} against {@link Lexer}, including the
+ * index of any {@link ParseException} thrown.
+ */
+public class DfaLexerTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testParity(String test, String input) {
+        test(input);
+    }
+
+    private static Stream<Arguments> testParity() {
+        return Stream.of(
+                Arguments.of("Empty", ""),
+                Arguments.of("Identifier", "getName thelegend27 a_b-c"),
+                Arguments.of("Integer", "1 12345 -1 0 -0"),
+                Arguments.of("Decimal", "123.456 -1.0 0.5 -.5"),
+                Arguments.of("Trailing Decimal", "1."),
+                Arguments.of("Leading Decimal", ".5"),
+                Arguments.of("Double Decimal", "1.2.3"),
+                Arguments.of("Minus", "x - y"),
+                Arguments.of("Adjacent Minus", "1-2"),
+                Arguments.of("Leading Zero", "01"),
+                Arguments.of("Negative Leading Zero", "-01"),
+                Arguments.of("Character", "'c' '\\n' '\\b' '\\''"),
+                Arguments.of("Empty Character", "''"),
+                Arguments.of("Multiple Character", "'abc'"),
+                Arguments.of("Unterminated Character", "'a"),
+                Arguments.of("Newline Character", "'\n'"),
+                Arguments.of("String", "\"\" \"abc\" \"Hello,\\nWorld\" \"\\\"\""),
+                Arguments.of("Unterminated String", "\"unterminated"),
+                Arguments.of("Newline String", "\"new\nline\""),
+                Arguments.of("Invalid Escape", "\"invalid\\escape\""),
+                Arguments.of("Invalid Character Escape", "'\\q'"),
+                Arguments.of("Operators", "( ) ; != == <= >= < > = ! && +*/^ [ ] , :"),
+                Arguments.of("Pipes", "a || b | c"),
+                Arguments.of("Single Ampersand", "a & b"),
+                Arguments.of("Trailing Ampersand", "a &"),
+                Arguments.of("Whitespace", " \t\r\n\\ x \b y"),
+                Arguments.of("Underscore", "_x"),
+                Arguments.of("Line Separator", "x\u2028y"),
+                Arguments.of("Number Line Separator", "12\u2029"),
+                Arguments.of("Unicode", "\u00e9\u4e2d\ud83d\ude00"),
+                Arguments.of("Example 1", "LET x = 5;"),
+                Arguments.of("Example 2", "print(\"Hello, World!\");"),
+                Arguments.of("Program", "VAR first: Integer = 1;\nFUN main(): Integer DO\n    WHILE first != 10 DO\n        print(first);\n        first = first + 1;\n    END\nEND")
+        );
+    }
+
+    @Test
+    void testRandomParity() {
+        List<String> fragments = Arrays.asList(
+                "a", "Z", "b", "n", "_", "-", "0", "1", "9", ".", "'", "\"", "\\", "\n", "\r",
+                " ", "\t", "<", ">", "!", "=", "&", "|", "(", ";", "\u2028", "\u00e9",
+                "x1", "12", "0.5", "'c'", "\"s\"", "\"\\n\"", "&&", "==", "LET"
+        );
+        Random random = new Random(42);
+        for(int i = 0; i < 5000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(12);
+            for(int j = 0; j < length; j++) {
+                builder.append(fragments.get(random.nextInt(fragments.size())));
+            }
+            test(builder.toString());
+        }
+    }
+
+    @Test
+    void testAtIdentifier() {
+        Assertions.assertEquals(
+                Arrays.asList(new Token(Token.Type.IDENTIFIER, "@name", 0)),
+                new DfaLexer("@name").lex()
+        );
+        Assertions.assertThrows(ParseException.class, () -> new DfaLexer("@1").lex());
+    }
+
+    /**
+     * Asserts that both lexers return the same tokens for the input, or throw a
+     * {@link ParseException} at the same index.
+     */
+    private static void test(String input) {
+        List<Token> expected;
+        try {
+            expected = new Lexer(input).lex();
+        } catch (ParseException e) {
+            ParseException actual = Assertions.assertThrows(ParseException.class,
+                    () -> new DfaLexer(input).lex(), input);
+            Assertions.assertEquals(e.getIndex(), actual.getIndex(), input);
+            return;
+        }
+        Assertions.assertEquals(expected, new DfaLexer(input).lex(), input);
+    }
+
+}
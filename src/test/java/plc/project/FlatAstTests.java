@@ -0,0 +1,112 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class FlatAstTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testRoundTrip(String test, String input) {
+        Ast.Source source = new Parser(new DfaLexer(input).lex()).parseSource();
+        Assertions.assertEquals(source, FlatAst.of(source).toAst());
+    }
+
+    private static Stream<Arguments> testRoundTrip() {
+        return Stream.of(
+                Arguments.of("Empty", ""),
+                Arguments.of("Globals", "VAR x: Integer;\nVAL y: Decimal = 1.50;\nLIST l: Character = ['a', '\\n'];"),
+                Arguments.of("Literals", "VAR x: Any = f(NIL, TRUE, FALSE, 1, 1.0, 'c', \"string\", \"\");"),
+                Arguments.of("Expressions", "VAR x: Integer = (a + b) * c[d] && e(f, g[]) && h();"),
+                Arguments.of("Statements", String.join("\n",
+                        "FUN main(a: Integer, b: String): Integer DO",
+                        "    LET x = 0;",
+                        "    LET y: Integer = 1;",
+                        "    x = y;",
+                        "    print(x);",
+                        "    IF x DO y = 1; ELSE y = 2; END",
+                        "    IF x DO END",
+                        "    WHILE x < 10 DO x = x + 1; END",
+                        "    SWITCH x CASE 1: print(1); CASE 2: DEFAULT print(3); END",
+                        "    RETURN x;",
+                        "END",
+                        "FUN f() DO END"
+                ))
+        );
+    }
+
+    @Test
+    void testUntypedFunction() {
+        Ast.Source source = new Ast.Source(List.of(), List.of(new Ast.Function("f", Arrays.asList("a", "b"), List.of(
+                new Ast.Statement.Declaration("x", Optional.empty(), Optional.empty())
+        ))));
+        Assertions.assertEquals(source, FlatAst.of(source).toAst());
+    }
+
+    @Test
+    void testRecords() {
+        Ast.Source source = new Parser(new DfaLexer("VAR x: Integer = x + 1;").lex()).parseSource();
+        FlatAst ast = FlatAst.of(source);
+        int root = ast.getRoot();
+        Assertions.assertEquals(FlatAst.SOURCE, ast.getKind(root));
+        Assertions.assertEquals(1, ast.get(root, 0));
+
+        int global = ast.get(root, 1);
+        Assertions.assertEquals(FlatAst.GLOBAL, ast.getKind(global));
+        Assertions.assertEquals("x", ast.getString(ast.get(global, 0)));
+        Assertions.assertEquals(1, ast.get(global, 2));
+
+        int binary = ast.get(global, 3);
+        Assertions.assertEquals(FlatAst.BINARY, ast.getKind(binary));
+        Assertions.assertEquals("+", ast.getString(ast.get(binary, 0)));
+        int left = ast.get(binary, 1), right = ast.get(binary, 2);
+        Assertions.assertEquals(FlatAst.ACCESS, ast.getKind(left));
+        //Names share one pool entry.
+        Assertions.assertEquals(ast.get(global, 0), ast.get(left, 0));
+        Assertions.assertEquals(-1, ast.get(left, 1));
+        Assertions.assertEquals(BigInteger.ONE, ast.getLiteral(ast.get(right, 0)));
+        Assertions.assertTrue(left < binary && right < binary && binary < global && global < root);
+    }
+
+    @Test
+    void testDeepNesting() throws IOException {
+        //Ast.equals recurses, so the round trip is checked on the bytes.
+        int depth = 20000;
+        Parser parser = new Parser(new DfaLexer("FUN main() DO RETURN " + "(1 + ".repeat(depth) + "1" + ")".repeat(depth) + "; END").lexBuffer());
+        parser.setStackSafe(true);
+        byte[] bytes = bytes(FlatAst.of(parser.parseSource()));
+        Ast.Source source = FlatAst.read(ByteBuffer.wrap(bytes)).toAst();
+        Assertions.assertArrayEquals(bytes, bytes(FlatAst.of(source)));
+        Ast.Expression expression = ((Ast.Statement.Return) source.getFunctions().get(0).getStatements().get(0)).getValue();
+        for(int i = 0; i < depth; i++) {
+            expression = ((Ast.Expression.Binary) ((Ast.Expression.Group) expression).getExpression()).getRight();
+        }
+        Assertions.assertEquals(new Ast.Expression.Literal(BigInteger.ONE), expression);
+    }
+
+    private static byte[] bytes(FlatAst ast) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ast.write(new DataOutputStream(out));
+        return out.toByteArray();
+    }
+
+    @Test
+    void testNilLiteral() {
+        Ast.Source source = new Ast.Source(List.of(new Ast.Global("x", true, Optional.of(new Ast.Expression.Literal(null)))), List.of());
+        Assertions.assertEquals(source, FlatAst.of(source).toAst());
+    }
+
+}
@@ -0,0 +1,190 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class IncrementalCompilerTests {
+
+    @Test
+    void testInitial() {
+        String source = program(5);
+        IncrementalCompiler compiler = new IncrementalCompiler(source);
+        Assertions.assertEquals(syntax(new Parser(new DfaLexer(source).lex()).parseSource()), syntax(compiler.getAst()));
+        Assertions.assertEquals(List.of(), compiler.getErrors());
+    }
+
+    @Test
+    void testBodyEdit() {
+        String source = program(50);
+        IncrementalCompiler compiler = new IncrementalCompiler(source);
+        compiler.edit(source.indexOf("b10 = f9(a10) * 2") + 16, 1, "3");
+        Assertions.assertEquals(1, compiler.getParsed());
+        Assertions.assertEquals(1, compiler.getAnalyzed());
+        check(compiler);
+
+        //A type error is reported on the edited function alone, and cleared.
+        int offset = compiler.getSource().indexOf("RETURN b20;") + 7;
+        compiler.edit(offset, 3, "\"s\"");
+        Assertions.assertEquals(1, compiler.getAnalyzed());
+        Assertions.assertEquals(1, compiler.getErrors().size());
+        compiler.edit(offset, 3, "b20");
+        Assertions.assertEquals(List.of(), compiler.getErrors());
+    }
+
+    @Test
+    void testSignatureEdit() {
+        String source = program(50);
+        IncrementalCompiler compiler = new IncrementalCompiler(source);
+        int offset = source.indexOf("FUN f10(a10: Integer): Integer") + 23;
+        compiler.edit(offset, 7, "String");
+        //f10 and its caller f11 are reanalyzed, and both fail.
+        Assertions.assertEquals(2, compiler.getAnalyzed());
+        Assertions.assertEquals(2, compiler.getErrors().size());
+        compiler.edit(offset, 6, "Integer");
+        Assertions.assertEquals(2, compiler.getAnalyzed());
+        Assertions.assertEquals(List.of(), compiler.getErrors());
+    }
+
+    @Test
+    void testOrder() {
+        String source = "FUN f(): Integer DO RETURN g(); END\nFUN g(): Integer DO RETURN 1; END\nFUN main(): Integer DO RETURN f(); END";
+        IncrementalCompiler compiler = new IncrementalCompiler(source);
+        Assertions.assertEquals(List.of("The function g/0 is not defined in this scope."),
+                compiler.getErrors().stream().map(Throwable::getMessage).toList());
+        //Renaming g to f is a duplicate, and defining g first fixes the call.
+        compiler.edit(source.indexOf("FUN g") + 4, 1, "f");
+        Assertions.assertEquals(List.of("The function g/0 is not defined in this scope.", "The function f/0 is already defined in this scope."),
+                compiler.getErrors().stream().map(Throwable::getMessage).toList());
+        compiler.edit(0, 0, "FUN g(): Integer DO RETURN 1; END\n");
+        Assertions.assertEquals(List.of("The function f/0 is already defined in this scope."),
+                compiler.getErrors().stream().map(Throwable::getMessage).toList());
+        compiler.edit(0, compiler.getSource().length(), "FUN main() DO END");
+        Assertions.assertEquals(List.of(), compiler.getErrors());
+    }
+
+    @Test
+    void testGlobals() {
+        String source = "VAR x: Integer = 1;\nVAL y: Integer = x;\nFUN main(): Integer DO RETURN x + y; END";
+        IncrementalCompiler compiler = new IncrementalCompiler(source);
+        Assertions.assertEquals(List.of(), compiler.getErrors());
+        compiler.edit(source.indexOf("Integer"), 7, "String");
+        Assertions.assertEquals(3, compiler.getErrors().size());
+        compiler.edit(compiler.getSource().indexOf("String"), 6, "Integer");
+        Assertions.assertEquals(List.of(), compiler.getErrors());
+    }
+
+    @Test
+    void testSplitAndMerge() {
+        String source = program(5);
+        IncrementalCompiler compiler = new IncrementalCompiler(source);
+        int offset = source.indexOf("RETURN b2;");
+        compiler.edit(offset, 0, "RETURN 0;\nEND\nFUN g(): Integer DO\n    ");
+        Assertions.assertEquals(2, compiler.getParsed());
+        check(compiler);
+        compiler.edit(offset, 38, "");
+        Assertions.assertEquals(1, compiler.getParsed());
+        Assertions.assertEquals(source, compiler.getSource());
+        check(compiler);
+    }
+
+    @Test
+    void testParseError() {
+        String source = program(3);
+        IncrementalCompiler compiler = new IncrementalCompiler(source);
+        int offset = source.indexOf("RETURN b1;") + 7;
+        compiler.edit(offset, 3, "");
+        Assertions.assertEquals(2, compiler.getErrors().size());
+        Assertions.assertInstanceOf(ParseException.class, compiler.getErrors().get(0));
+        //f2 calls f1, which no longer parses.
+        Assertions.assertEquals("The function f1/1 is not defined in this scope.", compiler.getErrors().get(1).getMessage());
+        compiler.edit(offset, 0, "b1;");
+        check(compiler);
+        Assertions.assertEquals(List.of(), compiler.getErrors());
+    }
+
+    @Test
+    void testLexError() {
+        String source = program(3);
+        IncrementalCompiler compiler = new IncrementalCompiler(source);
+        Assertions.assertThrows(ParseException.class, () -> compiler.edit(10, 0, "\""));
+        Assertions.assertEquals(source, compiler.getSource());
+        check(compiler);
+    }
+
+    @Test
+    void testRandomEdits() {
+        List<String> fragments = Arrays.asList("a0", "1", " ", "\n", ";", "(", ")", "+", "END", "FUN ", "f0(1)",
+                "RETURN 1;", "LET z = 1;", "f1", "Integer", "String", "main");
+        Random random = new Random(11);
+        IncrementalCompiler compiler = new IncrementalCompiler(program(6));
+        for(int i = 0; i < 2000; i++) {
+            String source = compiler.getSource();
+            int offset = random.nextInt(source.length() + 1);
+            int removed = random.nextInt(Math.min(12, source.length() - offset) + 1);
+            String inserted = fragments.get(random.nextInt(fragments.size()));
+            if(source.length() > 2000 && removed == 0) {
+                continue;
+            }
+            try {
+                compiler.edit(offset, removed, inserted);
+            } catch (ParseException e) {
+                Assertions.assertEquals(source, compiler.getSource());
+            }
+            check(compiler);
+            if(i % 200 == 199) {
+                compiler = new IncrementalCompiler(program(6));
+            }
+        }
+    }
+
+    /**
+     * Checks the compiler against parsing and analyzing the whole source.
+     */
+    private static void check(IncrementalCompiler compiler) {
+        String source = compiler.getSource();
+        Ast.Source expected;
+        try {
+            expected = new Parser(new DfaLexer(source).lex()).parseSource();
+        } catch (ParseException e) {
+            Assertions.assertFalse(compiler.getErrors().isEmpty(), source);
+            return;
+        }
+        Assertions.assertEquals(syntax(expected), syntax(new IncrementalCompiler(source).getAst()), source);
+        Assertions.assertEquals(syntax(expected), syntax(compiler.getAst()), source);
+        boolean valid = true;
+        try {
+            new Analyzer(new Scope(null)).visit(expected);
+        } catch (RuntimeException e) {
+            valid = false;
+        }
+        Assertions.assertEquals(valid, compiler.getErrors().isEmpty(), () -> source + "\n" + compiler.getErrors());
+    }
+
+    /**
+     * Returns a copy of {@code source} without the results of analysis.
+     */
+    private static Ast.Source syntax(Ast.Source source) {
+        return FlatAst.of(source).toAst();
+    }
+
+    /**
+     * Returns a program of {@code functions} functions, each calling the one
+     * before it, and a main function.
+     */
+    private static String program(int functions) {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < functions; i++) {
+            builder.append("FUN f").append(i).append("(a").append(i).append(": Integer): Integer DO\n");
+            builder.append("    LET b").append(i).append(" = ").append(i == 0 ? "a0" : "f" + (i - 1) + "(a" + i + ")").append(" * 2;\n");
+            builder.append("    RETURN b").append(i).append(";\n");
+            builder.append("END\n");
+        }
+        builder.append("FUN main(): Integer DO\n    RETURN f").append(functions - 1).append("(1);\nEND\n");
+        return builder.toString();
+    }
+
+}
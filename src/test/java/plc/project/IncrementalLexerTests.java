@@ -0,0 +1,122 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class IncrementalLexerTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testEdit(String test, String source, int offset, int removed, String inserted) {
+        test(new IncrementalLexer(source), offset, removed, inserted);
+    }
+
+    private static Stream<Arguments> testEdit() {
+        return Stream.of(
+                Arguments.of("Extend Identifier", "abc def", 3, 0, "x"),
+                Arguments.of("Join Identifiers", "abc def", 3, 1, ""),
+                Arguments.of("Split Identifier", "abcdef", 3, 0, " "),
+                Arguments.of("Inside String", "x \"abc\" y", 4, 1, "d e"),
+                Arguments.of("Escape Inside String", "x \"abc\" y", 4, 0, "\\\""),
+                Arguments.of("Close String Early", "x \"abc\" y", 4, 0, "\" \""),
+                Arguments.of("Merge Strings", "\"a\" + \"b\"", 2, 5, ""),
+                Arguments.of("Swallow Tokens", "\"a\" b \"c\"", 2, 5, " b "),
+                Arguments.of("Trailing Decimal", "1. x", 2, 0, "5"),
+                Arguments.of("Complete Decimal", "1.x", 2, 1, "5"),
+                Arguments.of("Break Decimal", "1.5", 2, 1, "x"),
+                Arguments.of("Decimal Before Edit", "1.  x", 3, 0, "5"),
+                Arguments.of("Delete Across Token", "ab cd ef", 1, 5, ""),
+                Arguments.of("Delete Whole Token", "ab cd ef", 3, 3, ""),
+                Arguments.of("Delete Operator", "a != b", 2, 1, ""),
+                Arguments.of("Append", "x = 1", 5, 0, ".5;"),
+                Arguments.of("Append Whitespace", "x", 1, 0, " \n"),
+                Arguments.of("Prepend", "x", 0, 0, "y "),
+                Arguments.of("Delete All", "x = 1;", 0, 6, ""),
+                Arguments.of("Empty Source", "", 0, 0, "LET x")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testException(String test, String source, int offset, int removed, String inserted) {
+        IncrementalLexer lexer = new IncrementalLexer(source);
+        ParseException expected = Assertions.assertThrows(ParseException.class,
+                () -> new DfaLexer(source.substring(0, offset) + inserted + source.substring(offset + removed)).lex());
+        ParseException actual = Assertions.assertThrows(ParseException.class, () -> lexer.edit(offset, removed, inserted));
+        Assertions.assertEquals(expected.getIndex(), actual.getIndex());
+        Assertions.assertEquals(source, lexer.getSource());
+        assertEquals(new DfaLexer(source).lexBuffer(), lexer.getTokens());
+    }
+
+    private static Stream<Arguments> testException() {
+        return Stream.of(
+                Arguments.of("Open String", "LET x = 1;", 8, 0, "\""),
+                Arguments.of("Remove Closing Quote", "x \"abc\" y", 6, 1, ""),
+                Arguments.of("Empty Character", "x 'c' y", 3, 1, ""),
+                Arguments.of("Invalid Escape", "x \"abc\" y", 4, 0, "\\q")
+        );
+    }
+
+    @Test
+    void testBounds() {
+        IncrementalLexer lexer = new IncrementalLexer("abc");
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> lexer.edit(-1, 0, "x"));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> lexer.edit(2, 2, "x"));
+        Assertions.assertEquals("abc", lexer.getSource());
+    }
+
+    @Test
+    void testRandomEdits() {
+        List<String> fragments = Arrays.asList("a", "1", ".", "\"", "'", "\\", " ", "\n", "=", "!", "-", "0", "x y", "END");
+        Random random = new Random(7);
+        IncrementalLexer lexer = new IncrementalLexer("");
+        for(int i = 0; i < 5000; i++) {
+            String source = lexer.getSource();
+            int offset = random.nextInt(source.length() + 1);
+            int removed = random.nextInt(Math.min(2, source.length() - offset) + 1);
+            String inserted = fragments.get(random.nextInt(fragments.size()));
+            String edited = source.substring(0, offset) + inserted + source.substring(offset + removed);
+            TokenBuffer expected;
+            try {
+                expected = new DfaLexer(edited).lexBuffer();
+            } catch (ParseException e) {
+                Assertions.assertThrows(ParseException.class, () -> lexer.edit(offset, removed, inserted));
+                Assertions.assertEquals(source, lexer.getSource());
+                continue;
+            }
+            assertEquals(expected, lexer.edit(offset, removed, inserted));
+            Assertions.assertEquals(edited, lexer.getSource());
+        }
+    }
+
+    private static void test(IncrementalLexer lexer, int offset, int removed, String inserted) {
+        String expected = lexer.getSource().substring(0, offset) + inserted + lexer.getSource().substring(offset + removed);
+        TokenBuffer tokens = lexer.edit(offset, removed, inserted);
+        Assertions.assertEquals(expected, lexer.getSource());
+        assertEquals(new DfaLexer(expected).lexBuffer(), tokens);
+    }
+
+    /**
+     * Asserts that two buffers hold the same tokens, including the kinds and
+     * escape flags which {@link Token#equals(Object)} does not compare.
+     */
+    private static void assertEquals(TokenBuffer expected, TokenBuffer actual) {
+        String source = expected.getSource().toString();
+        Assertions.assertEquals(source, actual.getSource().toString());
+        Assertions.assertEquals(expected.asList(), actual.asList(), source);
+        for(int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.getLength(i), actual.getLength(i), source);
+            Assertions.assertEquals(expected.getKind(i), actual.getKind(i), source);
+            Assertions.assertEquals(expected.hasEscapes(i), actual.hasEscapes(i), source);
+        }
+    }
+
+}
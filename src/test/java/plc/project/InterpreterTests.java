@@ -368,10 +368,112 @@ final class InterpreterTests {
                                 new Ast.Expression.Literal(new BigDecimal("3.4"))
                         ),
                         new BigDecimal("0.4")
+                ),
+                // 10 == 10
+                Arguments.of("Equal (True)",
+                        new Ast.Expression.Binary("==",
+                                new Ast.Expression.Literal(BigInteger.TEN),
+                                new Ast.Expression.Literal(BigInteger.TEN)
+                        ),
+                        true
+                ),
+                // 1.5 > 1.25
+                Arguments.of("Greater Than",
+                        new Ast.Expression.Binary(">",
+                                new Ast.Expression.Literal(new BigDecimal("1.5")),
+                                new Ast.Expression.Literal(new BigDecimal("1.25"))
+                        ),
+                        true
+                ),
+                // 'a' < 'b'
+                Arguments.of("Less Than (Character)",
+                        new Ast.Expression.Binary("<",
+                                new Ast.Expression.Literal('a'),
+                                new Ast.Expression.Literal('b')
+                        ),
+                        true
+                ),
+                // 1 + 1.0
+                Arguments.of("Mixed Addition",
+                        new Ast.Expression.Binary("+",
+                                new Ast.Expression.Literal(BigInteger.ONE),
+                                new Ast.Expression.Literal(BigDecimal.ONE)
+                        ),
+                        null
+                ),
+                // FALSE && undefined
+                Arguments.of("And (Short Circuit)",
+                        new Ast.Expression.Binary("&&",
+                                new Ast.Expression.Literal(false),
+                                new Ast.Expression.Access(Optional.empty(), "undefined")
+                        ),
+                        false
                 )
         );
     }
 
+    @Test
+    void testBinaryEvaluatesOnce() {
+        // ((next() + next()) * next()) < next(), where next() counts its calls
+        int[] calls = {0};
+        Scope scope = new Scope(null);
+        scope.defineFunction("next", 0, args -> Environment.create(BigInteger.valueOf(++calls[0])));
+        Ast.Expression next = new Ast.Expression.Function("next", Arrays.asList());
+        Ast ast = new Ast.Expression.Binary("<",
+                new Ast.Expression.Binary("*",
+                        new Ast.Expression.Group(new Ast.Expression.Binary("+", next, next)),
+                        next
+                ),
+                next
+        );
+        test(ast, false, scope);
+        Assertions.assertEquals(4, calls[0]);
+    }
+
+    @Test
+    void testBlockScopes() {
+        //The body declares square on every iteration, and neither it nor
+        //cube is visible after its block.
+        Scope scope = new Scope(null);
+        scope.defineVariable("num", true, Environment.create(BigInteger.ZERO));
+        scope.defineVariable("total", true, Environment.create(BigInteger.ZERO));
+        Ast.Statement ast = new Parser(new DfaLexer(String.join("\n",
+                "WHILE num < 4 DO",
+                "    LET square = num * num;",
+                "    IF num > 2 DO LET cube = square * num; total = total + cube; ELSE total = total + square; END",
+                "    num = num + 1;",
+                "END"
+        )).lex()).parseStatement();
+        Interpreter interpreter = new Interpreter(scope);
+        interpreter.visit(ast);
+        Assertions.assertEquals(BigInteger.valueOf(32), scope.lookupVariable("total").getValue().getValue());
+        Assertions.assertSame(scope, interpreter.getScope().getParent());
+        Assertions.assertThrows(RuntimeException.class, () -> interpreter.getScope().lookupVariable("square"));
+        Assertions.assertThrows(RuntimeException.class, () -> interpreter.getScope().lookupVariable("cube"));
+    }
+
+    @Test
+    void testFrame() {
+        //Each call of fact has its own result, held in its frame.
+        Ast.Source source = new Parser(new DfaLexer(String.join("\n",
+                "FUN fact(n: Integer): Integer DO",
+                "    LET result = 1;",
+                "    IF n > 1 DO LET rest = fact(n - 1); result = n * rest; END",
+                "    RETURN result;",
+                "END",
+                "FUN main(): Integer DO",
+                "    LET total = 0;",
+                "    LET i = 0;",
+                "    WHILE i < 5 DO LET f = fact(i); total = total + f; i = i + 1; END",
+                "    RETURN total;",
+                "END"
+        )).lex()).parseSource();
+        new Analyzer(new Scope(null)).visit(source);
+        Interpreter interpreter = new Interpreter(new Scope(null));
+        Assertions.assertEquals(BigInteger.valueOf(34), interpreter.visit(source).getValue());
+        Assertions.assertThrows(RuntimeException.class, () -> interpreter.getScope().lookupVariable("total"));
+    }
+
     @ParameterizedTest
     @MethodSource
     void testAccessExpression(String test, Ast ast, Object expected) {
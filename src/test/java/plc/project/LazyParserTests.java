@@ -0,0 +1,101 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Tests parsing from tokens pulled on demand, compared against parsing the
+ * fully lexed token list.
+ */
+public class LazyParserTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testParity(String test, String input) {
+        Ast.Source expected = new Parser(new DfaLexer(input).lex()).parseSource();
+        Assertions.assertEquals(expected, new Parser(new DfaLexer(input)).parseSource());
+        Assertions.assertEquals(expected, new Parser(new StreamingLexer(new StringReader(input), 4)).parseSource());
+    }
+
+    private static Stream<Arguments> testParity() {
+        String arguments = String.join(", ", Collections.nCopies(40, "x"));
+        String elements = String.join(", ", Collections.nCopies(40, "1.5"));
+        return Stream.of(
+                Arguments.of("Empty", ""),
+                //Longer than the ring buffer, so it wraps around several times.
+                Arguments.of("Long Argument List", "FUN main() DO f(" + arguments + "); END"),
+                Arguments.of("Long List Literal", "LIST list: Decimal = [" + elements + "];"),
+                Arguments.of("Lookahead", "FUN main() DO f(x); y[1] = z; w; END"),
+                Arguments.of("Escapes", "FUN main() DO print(\"a\\\"b\\n\"); print('\\''); print('c'); END"),
+                Arguments.of("Switch", "FUN main() DO SWITCH x CASE 1: f(); DEFAULT g(); END END")
+        );
+    }
+
+    @Test
+    void testLaziness() {
+        //An error in the first declaration is found without lexing the rest.
+        CountingIterator tokens = new CountingIterator(new DfaLexer("VAR ;" + " x".repeat(1000)));
+        Assertions.assertThrows(ParseException.class, () -> new Parser(tokens).parseSource());
+        Assertions.assertTrue(tokens.count < 16, "Pulled " + tokens.count + " tokens.");
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testParseException(String test, String input) {
+        ParseException expected = Assertions.assertThrows(ParseException.class,
+                () -> new Parser(new DfaLexer(input).lex()).parseSource());
+        ParseException actual = Assertions.assertThrows(ParseException.class,
+                () -> new Parser(new DfaLexer(input)).parseSource());
+        Assertions.assertEquals(expected.getMessage(), actual.getMessage());
+        Assertions.assertEquals(expected.getIndex(), actual.getIndex());
+    }
+
+    private static Stream<Arguments> testParseException() {
+        return Stream.of(
+                Arguments.of("Missing Semicolon At End", "VAR x: Integer = 1"),
+                Arguments.of("Missing End", "FUN main() DO"),
+                Arguments.of("Error After Wrap", "FUN main() DO f(" + "x, ".repeat(20) + "); END")
+        );
+    }
+
+    @Test
+    void testLexException() {
+        ParseException exception = Assertions.assertThrows(ParseException.class,
+                () -> new Parser(new DfaLexer("VAR x: String = \"unterminated;")).parseSource());
+        Assertions.assertEquals(30, exception.getIndex());
+    }
+
+    /**
+     * Counts the tokens pulled from a lexer.
+     */
+    private static final class CountingIterator implements Iterator<Token> {
+
+        private final Iterator<Token> iterator;
+        private int count = 0;
+
+        private CountingIterator(Iterator<Token> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Token next() {
+            count++;
+            return iterator.next();
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.StringReader;
+import java.util.stream.Stream;
+
+public class LineTableTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testLookup(String test, String input, int offset, int line, int column) {
+        LineTable lines = LineTable.of(input);
+        Assertions.assertEquals(line, lines.getLine(offset));
+        Assertions.assertEquals(column, lines.getColumn(offset));
+    }
+
+    private static Stream<Arguments> testLookup() {
+        return Stream.of(
+                Arguments.of("Empty", "", 0, 1, 1),
+                Arguments.of("First Line", "abc\ndef", 2, 1, 3),
+                Arguments.of("Newline", "abc\ndef", 3, 1, 4),
+                Arguments.of("Second Line", "abc\ndef", 4, 2, 1),
+                Arguments.of("Past End", "abc\ndef", 100, 2, 97),
+                Arguments.of("Trailing Newline", "abc\n", 4, 2, 1),
+                Arguments.of("CRLF", "a\r\nb", 3, 2, 1),
+                Arguments.of("CRLF Middle", "a\r\nb", 2, 1, 3),
+                Arguments.of("Lone CR", "a\rb", 2, 2, 1),
+                Arguments.of("Blank Lines", "\n\n\nx", 3, 4, 1)
+        );
+    }
+
+    @Test
+    void testLexerTables() {
+        String input = "VAR x: Integer = 1;\r\nFUN main(): Integer DO\r    x = x + 1;\n\n    RETURN x;\nEND\n";
+        DfaLexer lexer = new DfaLexer(input);
+        lexer.lex();
+        StreamingLexer streaming = new StreamingLexer(new StringReader(input), 2);
+        streaming.forEachRemaining(token -> {});
+        LineTable expected = LineTable.of(input);
+        Assertions.assertEquals(7, expected.getLineCount());
+        for(int line = 1; line <= expected.getLineCount(); line++) {
+            Assertions.assertEquals(expected.getLineStart(line), lexer.getLineTable().getLineStart(line));
+            Assertions.assertEquals(expected.getLineStart(line), streaming.getLineTable().getLineStart(line));
+        }
+    }
+
+    @Test
+    void testParseException() {
+        DfaLexer lexer = new DfaLexer("LET x = 1;\nLET y = \"unterminated;\n");
+        ParseException exception = Assertions.assertThrows(ParseException.class, lexer::lex);
+        Assertions.assertEquals(2, exception.getLine(lexer.getLineTable()));
+        Assertions.assertEquals(23, exception.getColumn(lexer.getLineTable()));
+        Assertions.assertEquals("2:23", lexer.getLineTable().format(exception.getIndex()));
+    }
+
+}
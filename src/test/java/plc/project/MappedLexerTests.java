@@ -0,0 +1,97 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class MappedLexerTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testBytes(String test, String input) {
+        test(input);
+    }
+
+    private static Stream<Arguments> testBytes() {
+        return Stream.of(
+                Arguments.of("Empty", ""),
+                Arguments.of("Example 1", "LET x = 5;"),
+                Arguments.of("Example 2", "print(\"Hello, World!\");"),
+                Arguments.of("Unicode String", "\"café 中 😀\""),
+                Arguments.of("Unicode Character", "'é' '中'"),
+                Arguments.of("Unicode Operators", "xé😀y"),
+                Arguments.of("Line Separator", "12\u2028"),
+                Arguments.of("Unterminated String", "\"éunterminated"),
+                Arguments.of("Surrogate Character", "'😀'")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testMalformed(String test, int[] sequence) {
+        byte[] bytes = new byte[sequence.length];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) sequence[i];
+        }
+        test(bytes);
+    }
+
+    private static Stream<Arguments> testMalformed() {
+        return Stream.of(
+                Arguments.of("Invalid Bytes", new int[] {'"', 0xFF, 0xE4, '"', ' ', 'x'}),
+                Arguments.of("Truncated", new int[] {'"', 0xE2, 0x82, 'A', '"', ' ', 'x'}),
+                Arguments.of("Truncated At End", new int[] {'x', ' ', 0xF0, 0x9F, 0x98}),
+                Arguments.of("Overlong NUL", new int[] {'\'', 0xC0, 0x80, '\'', ' ', 'x'}),
+                Arguments.of("Overlong 3 Bytes", new int[] {0xE0, 0x80, 0x80, ' ', 'x'}),
+                Arguments.of("Overlong 4 Bytes", new int[] {'"', 0xF0, 0x8F, 0xBF, 0xBF, '"', ' ', 'x'}),
+                Arguments.of("Surrogate", new int[] {'"', 0xED, 0xA0, 0x80, '"', ' ', 'x'}),
+                Arguments.of("Too Large", new int[] {'"', 0xF4, 0x90, 0x80, 0x80, '"', ' ', 'x'})
+        );
+    }
+
+    @Test
+    void testFile(@TempDir Path directory) throws IOException {
+        String input = "VAR first: Integer = 1;\nFUN main(): Integer DO\n    print(\"é中\");\n    RETURN first;\nEND\n";
+        Path path = directory.resolve("main.plc");
+        Files.writeString(path, input);
+        Assertions.assertEquals(new DfaLexer(input).lex(), new MappedLexer(path).lex());
+    }
+
+    /**
+     * Asserts that lexing the UTF-8 bytes of the input matches {@link DfaLexer},
+     * including the index of any {@link ParseException}.
+     */
+    private static void test(String input) {
+        test(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Asserts that lexing {@code array} matches {@link DfaLexer} on the
+     * {@link String} the JDK decodes it to, including the literals.
+     */
+    private static void test(byte[] array) {
+        String input = new String(array, StandardCharsets.UTF_8);
+        ByteBuffer bytes = ByteBuffer.wrap(array);
+        List<Token> expected;
+        try {
+            expected = new DfaLexer(input).lex();
+        } catch (ParseException e) {
+            ParseException actual = Assertions.assertThrows(ParseException.class, () -> new MappedLexer(bytes).lex());
+            Assertions.assertEquals(e.getIndex(), actual.getIndex());
+            return;
+        }
+        Assertions.assertEquals(expected, new MappedLexer(bytes).lex());
+    }
+
+}
@@ -0,0 +1,106 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class ParallelLexerTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testBoundaries(String test, String input, int chunkSize) {
+        test(input, chunkSize);
+    }
+
+    private static Stream<Arguments> testBoundaries() {
+        return Stream.of(
+                Arguments.of("Empty", "", 1),
+                Arguments.of("Only Newlines", "\n\n\n", 1),
+                Arguments.of("No Newlines", "a b c d e f", 1),
+                Arguments.of("Carriage Returns", "a\rb\rc\r", 1),
+                Arguments.of("CRLF", "a\r\nb\r\nc\r\n", 1),
+                Arguments.of("Trailing Decimal", "1.\n5\n1.\n", 1),
+                Arguments.of("Escaped Newline", "\"a\\nb\"\n'\\n'\nx\n", 1),
+                Arguments.of("Surrogate Pairs", "\"😀\"\n😀\n", 1),
+                Arguments.of("Chunk Ends At Input End", "ab\ncd\n", 3),
+                Arguments.of("Chunk Larger Than Input", "ab\ncd\n", 100)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 64, 1000, 100000})
+    void testChunkSizes(int chunkSize) {
+        test(generate(new Random(chunkSize), 2000), chunkSize);
+    }
+
+    @Test
+    void testDefaultChunkSize() {
+        String input = generate(new Random(7), 50000);
+        test(input, 1 << 18);
+        Assertions.assertEquals(new DfaLexer(input).lex(), ParallelLexer.lex(input).asList());
+    }
+
+    @Test
+    void testChunkSizeCheck() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ParallelLexer.lex("x", ForkJoinPool.commonPool(), 0));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testException(String test, String input) {
+        ParseException expected = Assertions.assertThrows(ParseException.class, () -> new DfaLexer(input).lex());
+        ParseException actual = Assertions.assertThrows(ParseException.class,
+                () -> ParallelLexer.lex(input, ForkJoinPool.commonPool(), 1));
+        Assertions.assertEquals(expected.getIndex(), actual.getIndex());
+    }
+
+    private static Stream<Arguments> testException() {
+        return Stream.of(
+                //The newline ends a chunk inside the string.
+                Arguments.of("Newline In String", "x\n\"abc\ndef\"\ny\n"),
+                Arguments.of("Earliest Of Several", "x\n\"unterminated\ny\n''\n\"\n"),
+                Arguments.of("Last Chunk", "x\ny\n'ab'")
+        );
+    }
+
+    /**
+     * Asserts that lexing in chunks matches lexing sequentially, including the
+     * kinds and escape flags which {@link Token#equals(Object)} does not
+     * compare.
+     */
+    private static void test(String input, int chunkSize) {
+        TokenBuffer expected = new DfaLexer(input).lexBuffer();
+        TokenBuffer actual = ParallelLexer.lex(input, ForkJoinPool.commonPool(), chunkSize);
+        Assertions.assertEquals(input, actual.getSource());
+        Assertions.assertEquals(expected.asList(), actual.asList());
+        for(int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.getKind(i), actual.getKind(i));
+            Assertions.assertEquals(expected.hasEscapes(i), actual.hasEscapes(i));
+        }
+    }
+
+    /**
+     * Generates lines of tokens which lex successfully, joined by all three
+     * line terminators.
+     */
+    private static String generate(Random random, int lines) {
+        String[] tokens = {"x", "LET", "1", "1.5", "-2", "1.", "'c'", "'\\n'", "\"s\"", "\"a\\\"b\"", "!=", ";", "(", "\t"};
+        String[] terminators = {"\n", "\r\n", "\r"};
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < lines; i++) {
+            for(int j = random.nextInt(6); j > 0; j--) {
+                builder.append(tokens[random.nextInt(tokens.length)]).append(' ');
+            }
+            builder.append(terminators[random.nextInt(terminators.length)]);
+        }
+        return builder.toString();
+    }
+
+}
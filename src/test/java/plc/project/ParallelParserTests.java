@@ -0,0 +1,95 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class ParallelParserTests {
+
+    private static final String[] DECLARATIONS = {
+            "VAR x: Integer = 1;",
+            "VAL y: Decimal = 1.5;",
+            "LIST z: Integer = [1, 2];",
+            "FUN f(a: Integer): Integer DO RETURN a; END",
+            "FUN g() DO WHILE x != 10 DO print(\"s\" + 'c'); END END",
+            "FUN h() DO SWITCH x CASE 1: f(1); DEFAULT END END"
+    };
+
+    @ParameterizedTest
+    @MethodSource
+    void testBoundaries(String test, String input, int chunkSize) {
+        test(input, chunkSize);
+    }
+
+    private static Stream<Arguments> testBoundaries() {
+        return Stream.of(
+                Arguments.of("Empty", "", 1),
+                Arguments.of("Single Declaration", "FUN f() DO x = 1; y = 2; END", 1),
+                Arguments.of("Globals After Functions", "FUN f() DO END VAR x: Integer = 1; FUN g() DO END LIST l: Integer = [1];", 1),
+                Arguments.of("Chunk Ends At Declaration", "VAR x: Integer = 1; VAR y: Integer = 2;", 6),
+                Arguments.of("Chunk Larger Than Input", "VAR x: Integer = 1; VAR y: Integer = 2;", 100),
+                //Keywords as identifiers split a function, so the chunk fails
+                //and the source is parsed sequentially.
+                Arguments.of("Keyword Identifier", "FUN f() DO\n    VAR;\n    x = LIST;\nEND\nFUN g() DO END", 1)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 64, 1000, 100000})
+    void testChunkSizes(int chunkSize) {
+        test(generate(new Random(chunkSize), 500), chunkSize);
+    }
+
+    @Test
+    void testDefaultChunkSize() {
+        TokenBuffer tokens = new DfaLexer(generate(new Random(7), 10000)).lexBuffer();
+        Assertions.assertEquals(new Parser(tokens).parseSource(), ParallelParser.parse(tokens));
+    }
+
+    @Test
+    void testChunkSizeCheck() {
+        TokenBuffer tokens = new DfaLexer("VAR x: Integer = 1;").lexBuffer();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ParallelParser.parse(tokens, ForkJoinPool.commonPool(), 0));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testException(String test, String input) {
+        TokenBuffer tokens = new DfaLexer(input).lexBuffer();
+        ParseException expected = Assertions.assertThrows(ParseException.class, () -> new Parser(tokens).parseSource());
+        ParseException actual = Assertions.assertThrows(ParseException.class,
+                () -> ParallelParser.parse(tokens, ForkJoinPool.commonPool(), 1));
+        Assertions.assertEquals(expected.getMessage(), actual.getMessage());
+        Assertions.assertEquals(expected.getIndex(), actual.getIndex());
+    }
+
+    private static Stream<Arguments> testException() {
+        return Stream.of(
+                Arguments.of("Middle Chunk", "VAR x: Integer = 1; FUN f() DO x = ; END VAR y: Integer = 2;"),
+                Arguments.of("Several Chunks", "FUN f() DO x = ; END FUN g() DO y = ; END"),
+                Arguments.of("Missing End At Input End", "VAR x: Integer = 1; FUN f() DO"),
+                Arguments.of("Keyword Identifier Before Error", "FUN f() DO x = VAL; END FUN g() DO y = ; END")
+        );
+    }
+
+    private static void test(String input, int chunkSize) {
+        TokenBuffer tokens = new DfaLexer(input).lexBuffer();
+        Assertions.assertEquals(new Parser(tokens).parseSource(), ParallelParser.parse(tokens, ForkJoinPool.commonPool(), chunkSize));
+    }
+
+    private static String generate(Random random, int declarations) {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < declarations; i++) {
+            builder.append(DECLARATIONS[random.nextInt(DECLARATIONS.length)]).append('\n');
+        }
+        return builder.toString();
+    }
+
+}
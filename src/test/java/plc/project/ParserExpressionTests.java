@@ -96,6 +96,18 @@ final class ParserExpressionTests {
                 Arguments.of("Escape Character",
                         Arrays.asList(new Token(Token.Type.STRING, "\"Hello,\\nWorld!\"", 0)),
                         new Ast.Expression.Literal("Hello,\nWorld!")
+                ),
+                Arguments.of("All Escapes",
+                        Arrays.asList(new Token(Token.Type.STRING, "\"\\b\\n\\r\\t\\'\\\"\\\\\"", 0)),
+                        new Ast.Expression.Literal("\b\n\r\t'\"\\")
+                ),
+                Arguments.of("Escaped Backslash",
+                        Arrays.asList(new Token(Token.Type.STRING, "\"\\\\n\"", 0)),
+                        new Ast.Expression.Literal("\\n")
+                ),
+                Arguments.of("Escaped Character",
+                        Arrays.asList(new Token(Token.Type.CHARACTER, "'\\''", 0)),
+                        new Ast.Expression.Literal('\'')
                 )
         );
     }
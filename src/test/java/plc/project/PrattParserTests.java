@@ -0,0 +1,78 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Tests that the operator precedence expression parser builds the same trees
+ * as the one method per precedence level parser.
+ */
+public class PrattParserTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testExpression(String test, String input) {
+        test(input);
+    }
+
+    private static Stream<Arguments> testExpression() {
+        return Stream.of(
+                Arguments.of("Literal", "1"),
+                Arguments.of("Binary", "1 + 2"),
+                Arguments.of("Left Associative", "1 - 2 - 3"),
+                Arguments.of("Precedence", "a || b && c < d + e * f"),
+                Arguments.of("Reverse Precedence", "a * b + c < d && e || f"),
+                Arguments.of("Power", "a ^ b * c / d"),
+                Arguments.of("Group", "(a + b) * c"),
+                Arguments.of("Function", "f(a + b, c * d) != g()"),
+                Arguments.of("Access", "list[i + 1] == x")
+        );
+    }
+
+    @Test
+    void testRandomExpressions() {
+        List<String> operators = Arrays.asList("&&", "||", "<", ">", "==", "!=", "+", "-", "*", "/", "^");
+        Random random = new Random(42);
+        for(int i = 0; i < 1000; i++) {
+            StringBuilder builder = new StringBuilder("x0");
+            int length = random.nextInt(10);
+            for(int j = 1; j <= length; j++) {
+                builder.append(' ').append(operators.get(random.nextInt(operators.size()))).append(" x").append(j);
+            }
+            test(builder.toString());
+        }
+    }
+
+    @Test
+    void testSource() {
+        String input = "VAR first: Integer = 1 + 2 * 3;\nFUN main(): Integer DO\n    WHILE first != 10 && first < 20 DO\n        first = first + 1 - (2 * first) / 3;\n    END\n    RETURN first;\nEND";
+        Parser parser = new Parser(new Lexer(input).lex());
+        parser.setPratt(true);
+        Assertions.assertEquals(new Parser(new Lexer(input).lex()).parseSource(), parser.parseSource());
+    }
+
+    @Test
+    void testError() {
+        ParseException expected = Assertions.assertThrows(ParseException.class,
+                () -> new Parser(new Lexer("a + * b").lex()).parseExpression());
+        Parser parser = new Parser(new Lexer("a + * b").lex());
+        parser.setPratt(true);
+        ParseException actual = Assertions.assertThrows(ParseException.class, parser::parseExpression);
+        Assertions.assertEquals(expected.getIndex(), actual.getIndex());
+    }
+
+    private static void test(String input) {
+        Parser parser = new Parser(new Lexer(input).lex());
+        parser.setPratt(true);
+        Assertions.assertEquals(new Parser(new Lexer(input).lex()).parseExpression(), parser.parseExpression(), input);
+    }
+
+}
@@ -0,0 +1,96 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tests lexing and parsing in recovering mode, which collects every error
+ * instead of throwing the first.
+ */
+public class RecoveryTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testLexer(String test, String input, List<Token> tokens, List<Integer> indices) {
+        List<ParseException> errors = new ArrayList<>();
+        Assertions.assertEquals(tokens, new DfaLexer(input).lex(errors));
+        Assertions.assertEquals(indices, errors.stream().map(ParseException::getIndex).toList());
+    }
+
+    private static Stream<Arguments> testLexer() {
+        return Stream.of(
+                Arguments.of("No Errors", "x = 1;",
+                        Arrays.asList(
+                                new Token(Token.Type.IDENTIFIER, "x", 0),
+                                new Token(Token.Type.OPERATOR, "=", 2),
+                                new Token(Token.Type.INTEGER, "1", 4),
+                                new Token(Token.Type.OPERATOR, ";", 5)
+                        ),
+                        List.of()
+                ),
+                Arguments.of("Leading Zero", "x = 01; y",
+                        Arrays.asList(
+                                new Token(Token.Type.IDENTIFIER, "x", 0),
+                                new Token(Token.Type.OPERATOR, "=", 2),
+                                new Token(Token.Type.OPERATOR, ";", 6),
+                                new Token(Token.Type.IDENTIFIER, "y", 8)
+                        ),
+                        List.of(6)
+                ),
+                Arguments.of("Multiple Errors", "'ab' \"unterminated\nx & y",
+                        Arrays.asList(
+                                new Token(Token.Type.IDENTIFIER, "x", 19),
+                                new Token(Token.Type.IDENTIFIER, "y", 23)
+                        ),
+                        List.of(2, 18, 22)
+                )
+        );
+    }
+
+    @Test
+    void testParser() {
+        String input = String.join("\n",
+                "VAR x: Integer = ;",
+                "FUN main(): Integer DO",
+                "    LET y = 1 +;",
+                "    y = 2;",
+                "    IF y DO x = ; END",
+                "    RETURN y;",
+                "END",
+                "VAL z: Integer = 1;"
+        );
+        List<ParseException> errors = new ArrayList<>();
+        Ast.Source ast = new Parser(new DfaLexer(input).lex()).parseSource(errors);
+        Assertions.assertEquals(3, errors.size());
+        Assertions.assertEquals(List.of("z"), ast.getGlobals().stream().map(Ast.Global::getName).toList());
+        Assertions.assertEquals(1, ast.getFunctions().size());
+        List<Ast.Statement> statements = ast.getFunctions().get(0).getStatements();
+        Assertions.assertEquals(3, statements.size());
+        Assertions.assertInstanceOf(Ast.Statement.Assignment.class, statements.get(0));
+        Assertions.assertEquals(List.of(), ((Ast.Statement.If) statements.get(1)).getThenStatements());
+        Assertions.assertInstanceOf(Ast.Statement.Return.class, statements.get(2));
+    }
+
+    @Test
+    void testParserThrowsByDefault() {
+        Assertions.assertThrows(ParseException.class,
+                () -> new Parser(new DfaLexer("FUN main(): Integer DO x = ; END").lex()).parseSource());
+    }
+
+    @Test
+    void testMissingEnd() {
+        List<ParseException> errors = new ArrayList<>();
+        Ast.Source ast = new Parser(new DfaLexer("FUN main(): Integer DO\n    RETURN 1;").lex()).parseSource(errors);
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertEquals(List.of(), ast.getFunctions());
+    }
+
+}
@@ -0,0 +1,153 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Tests that parsing with an explicit stack matches the recursive parser, and
+ * that it handles nesting far deeper than the thread stack allows.
+ */
+public class StackSafeParserTests {
+
+    private static final int DEPTH = 100_000;
+
+    @ParameterizedTest
+    @MethodSource
+    void testParity(String test, String input) {
+        test(input);
+    }
+
+    private static Stream<Arguments> testParity() {
+        return Stream.of(
+                Arguments.of("Empty", ""),
+                Arguments.of("Globals", "VAR x: Integer = (1 + 2) * f(3, g(), list[4]);\nLIST l: Integer = [1, (2), 3];\nVAL y: Boolean = TRUE && !x;"),
+                Arguments.of("Statements", "FUN main(): Integer DO\n    LET x = 1;\n    x = x + 1;\n    print(x);\n    RETURN x;\nEND"),
+                Arguments.of("Nested", "FUN main() DO\n    IF a DO WHILE b < c DO d(); END ELSE SWITCH e CASE 1: IF f DO END DEFAULT g[h] = i; END END\nEND"),
+                Arguments.of("Empty Blocks", "FUN main() DO IF a DO ELSE END WHILE b DO END SWITCH c DEFAULT END END"),
+                Arguments.of("Missing End", "FUN main() DO IF a DO b; END"),
+                Arguments.of("Missing Do", "FUN main() DO WHILE a b; END END"),
+                Arguments.of("Missing Default", "FUN main() DO SWITCH a CASE 1: b; END END"),
+                Arguments.of("Missing Colon", "FUN main() DO SWITCH a CASE 1 b; DEFAULT END END"),
+                Arguments.of("Missing Paren", "VAR x: Integer = (1 + 2;"),
+                Arguments.of("Missing Comma", "VAR x: Integer = f(1 2);"),
+                Arguments.of("Missing Bracket", "VAR x: Integer = l[1;"),
+                Arguments.of("Missing Operand", "VAR x: Integer = 1 + * 2;"),
+                Arguments.of("Keyword Call", "VAR x: Integer = TRUE(1);")
+        );
+    }
+
+    @Test
+    void testRandomParity() {
+        List<String> fragments = Arrays.asList(
+                "IF", "WHILE", "SWITCH", "CASE", "DEFAULT", "DO", "ELSE", "END", "LET", "RETURN",
+                "x", "y", "1", "(", ")", "[", "]", ",", ":", ";", "=", "+", "*", "<", "&&", "f("
+        );
+        Random random = new Random(42);
+        for(int i = 0; i < 5000; i++) {
+            StringBuilder builder = new StringBuilder("FUN main() DO ");
+            int length = random.nextInt(20);
+            for(int j = 0; j < length; j++) {
+                builder.append(fragments.get(random.nextInt(fragments.size()))).append(' ');
+            }
+            test(builder.append("END").toString());
+        }
+    }
+
+    @Test
+    void testDeepGroup() {
+        String input = "(".repeat(DEPTH) + "1" + ")".repeat(DEPTH);
+        Ast.Expression expression = parser(input).parseExpression();
+        for(int i = 0; i < DEPTH; i++) {
+            expression = ((Ast.Expression.Group) expression).getExpression();
+        }
+        Assertions.assertEquals(new Ast.Expression.Literal(java.math.BigInteger.ONE), expression);
+    }
+
+    @Test
+    void testDeepCall() {
+        String input = "f(".repeat(DEPTH) + "x" + ")".repeat(DEPTH);
+        Ast.Expression expression = parser(input).parseExpression();
+        for(int i = 0; i < DEPTH; i++) {
+            expression = ((Ast.Expression.Function) expression).getArguments().get(0);
+        }
+        Assertions.assertEquals(new Ast.Expression.Access(java.util.Optional.empty(), "x"), expression);
+    }
+
+    @Test
+    void testLongChain() {
+        String input = "x" + " + x * x".repeat(DEPTH);
+        Ast.Expression expression = parser(input).parseExpression();
+        for(int i = 0; i < DEPTH; i++) {
+            Ast.Expression.Binary binary = (Ast.Expression.Binary) expression;
+            Assertions.assertEquals("+", binary.getOperator());
+            Assertions.assertEquals("*", ((Ast.Expression.Binary) binary.getRight()).getOperator());
+            expression = binary.getLeft();
+        }
+        Assertions.assertEquals(new Ast.Expression.Access(java.util.Optional.empty(), "x"), expression);
+    }
+
+    @Test
+    void testDeepBlocks() {
+        String input = "FUN main() DO\n" + "IF x DO WHILE y DO ".repeat(DEPTH / 2) + "RETURN 1;" + " END ELSE z; END".repeat(DEPTH / 2) + "\nEND";
+        Ast.Function function = parser(input).parseSource().getFunctions().get(0);
+        List<Ast.Statement> statements = function.getStatements();
+        for(int i = 0; i < DEPTH / 2; i++) {
+            Ast.Statement.If statement = (Ast.Statement.If) statements.get(0);
+            Assertions.assertEquals(1, statement.getElseStatements().size());
+            statements = ((Ast.Statement.While) statement.getThenStatements().get(0)).getStatements();
+        }
+        Assertions.assertInstanceOf(Ast.Statement.Return.class, statements.get(0));
+    }
+
+    @Test
+    void testDeepRecovery() {
+        String input = "FUN main() DO\n" + "IF x DO ".repeat(DEPTH) + "y = ;" + " END".repeat(DEPTH) + "\nEND";
+        List<ParseException> errors = new ArrayList<>();
+        Parser parser = parser(input);
+        Ast.Source source = parser.parseSource(errors);
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertEquals(1, source.getFunctions().size());
+    }
+
+    private static Parser parser(String input) {
+        Parser parser = new Parser(new DfaLexer(input).lexBuffer());
+        parser.setStackSafe(true);
+        return parser;
+    }
+
+    /**
+     * Asserts that both parsers return the same source or throw a {@link
+     * ParseException} with the same message and index, and collect the same
+     * errors when recovering.
+     */
+    private static void test(String input) {
+        List<Token> tokens = new DfaLexer(input).lex();
+        try {
+            Ast.Source expected = new Parser(tokens).parseSource();
+            Assertions.assertEquals(expected, parser(input).parseSource(), input);
+        } catch(ParseException e) {
+            ParseException actual = Assertions.assertThrows(ParseException.class, () -> parser(input).parseSource(), input);
+            Assertions.assertEquals(e.getMessage(), actual.getMessage(), input);
+            Assertions.assertEquals(e.getIndex(), actual.getIndex(), input);
+        }
+
+        List<ParseException> expectedErrors = new ArrayList<>(), actualErrors = new ArrayList<>();
+        Ast.Source expected = new Parser(tokens).parseSource(expectedErrors);
+        Assertions.assertEquals(expected, parser(input).parseSource(actualErrors), input);
+        Assertions.assertEquals(
+                expectedErrors.stream().map(e -> e.getMessage() + e.getIndex()).toList(),
+                actualErrors.stream().map(e -> e.getMessage() + e.getIndex()).toList(),
+                input
+        );
+    }
+
+}
@@ -0,0 +1,151 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+public class StreamingLexerTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testReader(String test, String input, int capacity) {
+        Assertions.assertEquals(new DfaLexer(input).lex(), lex(new StreamingLexer(new StringReader(input), capacity)));
+        Assertions.assertEquals(new DfaLexer(input).lex(), lex(new StreamingLexer(new TrickleReader(input), capacity)));
+    }
+
+    private static Stream<Arguments> testReader() {
+        return Stream.of(
+                Arguments.of("Empty", "", 2),
+                Arguments.of("Whitespace", "   \n\t ", 2),
+                Arguments.of("Trailing Decimal", "1.", 2),
+                Arguments.of("Decimal Across Refill", "1.5", 2),
+                Arguments.of("Decimal Lookahead Across Refill", "1.x", 2),
+                Arguments.of("Token Fills Buffer", "ab cd", 2),
+                Arguments.of("Identifier Longer Than Buffer", "a".repeat(100) + " b", 2),
+                Arguments.of("String Longer Than Buffer", "\"" + "s".repeat(100) + "\" x", 4),
+                Arguments.of("Escape Across Refill", "\"a\\\"b\\\\\" '\\''", 2),
+                Arguments.of("Operators Across Refill", "a!=b==c&&d||e", 3),
+                Arguments.of("Surrogate Pair Across Refill", "x\"😀\" \"a😀b\"", 2)
+        );
+    }
+
+    @Test
+    void testChannel() {
+        //A channel yielding one byte per read splits every multi-byte character.
+        String input = "\"é中😀\" x";
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        ReadableByteChannel channel = new ReadableByteChannel() {
+
+            private int position = 0;
+
+            @Override
+            public int read(ByteBuffer destination) {
+                if(position == bytes.length) {
+                    return -1;
+                }
+                destination.put(bytes[position++]);
+                return 1;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {}
+
+        };
+        Assertions.assertEquals(new DfaLexer(input).lex(), lex(new StreamingLexer(channel)));
+    }
+
+    @Test
+    void testLineTable() {
+        String input = "a\r\nb\rc\n\r\nd";
+        StreamingLexer lexer = new StreamingLexer(new StringReader(input), 2);
+        lex(lexer);
+        LineTable expected = LineTable.of(input);
+        Assertions.assertEquals(expected.getLineCount(), lexer.getLineTable().getLineCount());
+        for(int line = 1; line <= expected.getLineCount(); line++) {
+            Assertions.assertEquals(expected.getLineStart(line), lexer.getLineTable().getLineStart(line));
+        }
+    }
+
+    @Test
+    void testIterator() {
+        StreamingLexer lexer = new StreamingLexer(new StringReader("x"), 2);
+        Assertions.assertTrue(lexer.hasNext());
+        Assertions.assertTrue(lexer.hasNext());
+        Assertions.assertEquals(new Token(Token.Type.IDENTIFIER, "x", 0), lexer.next());
+        Assertions.assertFalse(lexer.hasNext());
+        Assertions.assertThrows(NoSuchElementException.class, lexer::next);
+    }
+
+    @Test
+    void testCapacity() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new StreamingLexer(new StringReader(""), 1));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testException(String test, String input) {
+        ParseException expected = Assertions.assertThrows(ParseException.class, () -> new DfaLexer(input).lex());
+        ParseException actual = Assertions.assertThrows(ParseException.class,
+                () -> lex(new StreamingLexer(new StringReader(input), 2)));
+        Assertions.assertEquals(expected.getIndex(), actual.getIndex());
+    }
+
+    private static Stream<Arguments> testException() {
+        return Stream.of(
+                Arguments.of("Unterminated String", "x \"" + "s".repeat(20)),
+                Arguments.of("Newline In String", "x \"abc\ndef\""),
+                Arguments.of("Invalid Escape", "x \"ab\\q\""),
+                Arguments.of("Empty Character", "x ''")
+        );
+    }
+
+    private static List<Token> lex(StreamingLexer lexer) {
+        List<Token> tokens = new ArrayList<>();
+        lexer.forEachRemaining(tokens::add);
+        return tokens;
+    }
+
+    /**
+     * A reader yielding one char per read, so every token spans refills.
+     */
+    private static final class TrickleReader extends Reader {
+
+        private final String input;
+        private int position = 0;
+
+        private TrickleReader(String input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if(position == input.length()) {
+                return -1;
+            }
+            buffer[offset] = input.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {}
+
+    }
+
+}
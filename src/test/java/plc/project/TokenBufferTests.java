@@ -0,0 +1,131 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+public class TokenBufferTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testLexBuffer(String test, String input) {
+        TokenBuffer buffer = new DfaLexer(input).lexBuffer();
+        Assertions.assertEquals(new DfaLexer(input).lex(), buffer.asList());
+    }
+
+    private static Stream<Arguments> testLexBuffer() {
+        return Stream.of(
+                Arguments.of("Empty", ""),
+                Arguments.of("Whitespace", " \t\n"),
+                Arguments.of("Every Type", "x 1 -1.5 'c' \"s\" != ;"),
+                Arguments.of("Empty String", "\"\""),
+                Arguments.of("Unicode", "\"é😀\" é"),
+                Arguments.of("Beyond Initial Capacity", "x ".repeat(1000))
+        );
+    }
+
+    @Test
+    void testGrowth() {
+        TokenBuffer buffer = new TokenBuffer("ab", 0);
+        for(int i = 0; i < 100; i++) {
+            buffer.add(Token.Type.IDENTIFIER, i % 2, 1);
+        }
+        Assertions.assertEquals(100, buffer.size());
+        Assertions.assertEquals("a", buffer.getLiteral(98));
+        Assertions.assertEquals(new Token(Token.Type.IDENTIFIER, "b", 1), buffer.get(99));
+    }
+
+    @Test
+    void testEmpty() {
+        TokenBuffer buffer = new DfaLexer("").lexBuffer();
+        Assertions.assertEquals(0, buffer.size());
+        Assertions.assertTrue(buffer.asList().isEmpty());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.getType(0));
+    }
+
+    @Test
+    void testAccessors() {
+        TokenBuffer buffer = new DfaLexer("LET x = \"s\";").lexBuffer();
+        Assertions.assertEquals(5, buffer.size());
+        Assertions.assertEquals(Token.Type.STRING, buffer.getType(3));
+        Assertions.assertEquals(8, buffer.getStart(3));
+        Assertions.assertEquals(3, buffer.getLength(3));
+        Assertions.assertEquals("\"s\"", buffer.getLiteral(3));
+        Assertions.assertTrue(buffer.literalEquals(0, "LET"));
+        Assertions.assertFalse(buffer.literalEquals(0, "LE"));
+        Assertions.assertFalse(buffer.literalEquals(0, "LEX"));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.getType(5));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.getLiteral(-1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.literalEquals(5, ""));
+    }
+
+    @Test
+    void testCharSequenceSource() {
+        //Literals are read from the source when requested, not when added.
+        StringBuilder source = new StringBuilder("abc");
+        TokenBuffer buffer = new TokenBuffer(source);
+        buffer.add(Token.Type.IDENTIFIER, 0, 3);
+        source.setCharAt(1, 'x');
+        Assertions.assertEquals("axc", buffer.getLiteral(0));
+        Assertions.assertTrue(buffer.literalEquals(0, "axc"));
+    }
+
+    @Test
+    void testEscapes() {
+        String input = "\"plain\" \"a\\tb\" 'c' '\\n' x";
+        TokenBuffer buffer = new DfaLexer(input).lexBuffer();
+        Assertions.assertFalse(buffer.hasEscapes(0));
+        Assertions.assertTrue(buffer.hasEscapes(1));
+        Assertions.assertFalse(buffer.hasEscapes(2));
+        Assertions.assertTrue(buffer.hasEscapes(3));
+        Assertions.assertFalse(buffer.hasEscapes(4));
+        for(int i = 0; i < buffer.size(); i++) {
+            Assertions.assertEquals(new Lexer(input).lex().get(i).hasEscapes(), buffer.hasEscapes(i));
+            Assertions.assertEquals(new Token(buffer.getType(i), buffer.getLiteral(i), 0).hasEscapes(), buffer.hasEscapes(i));
+        }
+
+        String program = "FUN main() DO print(\"a\\\\n\\\"b\\\"\" + \"plain\" + '\\'' + 'c'); END";
+        Ast.Source expected = new Parser(new Lexer(program).lex()).parseSource();
+        Assertions.assertEquals(expected, new Parser(new DfaLexer(program).lex()).parseSource());
+        Assertions.assertEquals(expected, new Parser(new DfaLexer(program).lexBuffer()).parseSource());
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testParser(String test, String input) {
+        Ast.Source expected = new Parser(new DfaLexer(input).lex()).parseSource();
+        Assertions.assertEquals(expected, new Parser(new DfaLexer(input).lexBuffer()).parseSource());
+    }
+
+    private static Stream<Arguments> testParser() {
+        return Stream.of(
+                Arguments.of("Empty", ""),
+                Arguments.of("List", "LIST list: Decimal = [1.0, -2.5];"),
+                Arguments.of("Keyword Literals", "VAR x: Boolean = TRUE; VAR y: Any = NIL;"),
+                Arguments.of("Operators", "FUN f() DO x = a != b; y = c && d; z = e < f; END")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testParseException(String test, String input) {
+        ParseException expected = Assertions.assertThrows(ParseException.class,
+                () -> new Parser(new DfaLexer(input).lex()).parseSource());
+        ParseException actual = Assertions.assertThrows(ParseException.class,
+                () -> new Parser(new DfaLexer(input).lexBuffer()).parseSource());
+        Assertions.assertEquals(expected.getIndex(), actual.getIndex());
+    }
+
+    private static Stream<Arguments> testParseException() {
+        return Stream.of(
+                Arguments.of("Missing Semicolon", "VAR x: Integer = 1"),
+                Arguments.of("Unexpected Token", "VAR x: Integer = ;"),
+                Arguments.of("Missing End", "FUN f() DO")
+        );
+    }
+
+}
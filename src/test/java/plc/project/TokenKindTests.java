@@ -0,0 +1,32 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class TokenKindTests {
+
+    @Test
+    void testKeywordsAndOperators() {
+        for(int kind = TokenKind.FUN; kind <= TokenKind.POWER; kind++) {
+            Assertions.assertEquals(kind, TokenKind.classify(TokenKind.getLiteral(kind)), TokenKind.getLiteral(kind));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "fun", "FUNC", "FU", "name", "\"FUN\"", "'='", "1", "===", "&", "|", "DEFAULTS"})
+    void testNone(String literal) {
+        Assertions.assertEquals(TokenKind.NONE, TokenKind.classify(literal));
+    }
+
+    @Test
+    void testTokenBuffer() {
+        TokenBuffer buffer = new DfaLexer("WHILE x != 1 DO END").lexBuffer();
+        Assertions.assertEquals(TokenKind.WHILE, buffer.getKind(0));
+        Assertions.assertEquals(TokenKind.NONE, buffer.getKind(1));
+        Assertions.assertEquals(TokenKind.NOT_EQUAL, buffer.getKind(2));
+        Assertions.assertEquals(TokenKind.END, new Token(Token.Type.IDENTIFIER, "END", 0).getKind());
+    }
+
+}
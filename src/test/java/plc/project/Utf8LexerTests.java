@@ -0,0 +1,163 @@
+package plc.project;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Parity tests checking {@link Utf8Lexer} against {@link DfaLexer} on the
+ * decoded input, including the index of any {@link ParseException} thrown.
+ */
+public class Utf8LexerTests {
+
+    @ParameterizedTest
+    @MethodSource
+    void testParity(String test, String input) {
+        test(input);
+    }
+
+    private static Stream<Arguments> testParity() {
+        return Stream.of(
+                Arguments.of("Empty", ""),
+                Arguments.of("Example 1", "LET x = 5;"),
+                Arguments.of("Unicode String", "\"café 中 😀\" x"),
+                Arguments.of("Unicode Character", "'é' '中'"),
+                Arguments.of("Unicode Operators", "xé😀y"),
+                Arguments.of("Surrogate Character", "'😀'"),
+                Arguments.of("Line Separator", "x\u2028"),
+                Arguments.of("Escape After Unicode", "\"é\\q\""),
+                Arguments.of("Error After Unicode", "\"中\" 01")
+        );
+    }
+
+    @Test
+    void testRandomParity() {
+        List<String> fragments = Arrays.asList(
+                "a", "1", "0", ".", "-", "'", "\"", "\\", "\n", " ", "=", "&", ";",
+                "é", "中", "😀", "\u2028", "\u0085", "x1", "'é'", "\"中\"", "\"\\n\""
+        );
+        Random random = new Random(42);
+        for(int i = 0; i < 5000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(12);
+            for(int j = 0; j < length; j++) {
+                builder.append(fragments.get(random.nextInt(fragments.size())));
+            }
+            test(builder.toString());
+        }
+    }
+
+    @Test
+    void testOffsets() {
+        String input = "LET é = \"中😀\";\nx";
+        Utf8Lexer lexer = new Utf8Lexer(input.getBytes(StandardCharsets.UTF_8));
+        int[] starts = {0, 4, 7, 9, 18, 20};
+        for(int start : starts) {
+            Assertions.assertTrue(lexer.scanToken());
+            Assertions.assertEquals(start, lexer.getTokenStart());
+        }
+        Assertions.assertFalse(lexer.scanToken());
+        Assertions.assertEquals(6, lexer.getCharOffset(7));
+        Assertions.assertEquals(8, lexer.getCharOffset(9));
+        Assertions.assertEquals(13, lexer.getCharOffset(18));
+        Assertions.assertEquals(15, lexer.getLineTable().getLineStart(2));
+    }
+
+    @Test
+    void testMalformed() {
+        byte[] bytes = {'"', (byte) 0xFF, (byte) 0xE4, '"', ' ', 'x'};
+        List<Token> tokens = new Utf8Lexer(bytes).lex();
+        Assertions.assertEquals(2, tokens.size());
+        Assertions.assertEquals(5, tokens.get(1).getIndex());
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testMalformedParity(String test, int[] sequence) {
+        byte[] bytes = new byte[sequence.length];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) sequence[i];
+        }
+        test(bytes);
+        //Within a string literal, which is decoded by Token#getLiteral().
+        byte[] string = new byte[bytes.length + 4];
+        string[0] = '"';
+        System.arraycopy(bytes, 0, string, 1, bytes.length);
+        string[bytes.length + 1] = '"';
+        string[bytes.length + 2] = ' ';
+        string[bytes.length + 3] = 'x';
+        test(string);
+    }
+
+    private static Stream<Arguments> testMalformedParity() {
+        return Stream.of(
+                Arguments.of("Truncated 2 Bytes", new int[] {0xC3, 'x'}),
+                Arguments.of("Truncated 3 Bytes", new int[] {0xE2, 0x82, 'A', ' ', 'x'}),
+                Arguments.of("Truncated 4 Bytes", new int[] {0xF0, 0x9F, 0x98, ' ', 'x'}),
+                Arguments.of("Truncated At End", new int[] {'x', 0xF0, 0x9F, 0x98}),
+                Arguments.of("Continuation", new int[] {0x80, 0xBF, 'x'}),
+                Arguments.of("Overlong NUL", new int[] {0xC0, 0x80, ' ', 'x'}),
+                Arguments.of("Overlong 2 Bytes", new int[] {0xC1, 0xBF, ' ', 'x'}),
+                Arguments.of("Overlong 3 Bytes", new int[] {0xE0, 0x80, 0x80, ' ', 'x'}),
+                Arguments.of("Overlong 4 Bytes", new int[] {0xF0, 0x80, 0x80, 0x80, ' ', 'x'}),
+                Arguments.of("High Surrogate", new int[] {0xED, 0xA0, 0x80, ' ', 'x'}),
+                Arguments.of("Low Surrogate", new int[] {0xED, 0xBF, 0xBF, ' ', 'x'}),
+                Arguments.of("Too Large", new int[] {0xF4, 0x90, 0x80, 0x80, ' ', 'x'}),
+                Arguments.of("Invalid Lead", new int[] {0xF5, 0x80, 0x80, 0x80, ' ', 'x'}),
+                Arguments.of("Last Before Surrogates", new int[] {0xED, 0x9F, 0xBF, ' ', 'x'}),
+                Arguments.of("First After Surrogates", new int[] {0xEE, 0x80, 0x80, ' ', 'x'}),
+                Arguments.of("Smallest 3 Bytes", new int[] {0xE0, 0xA0, 0x80, ' ', 'x'}),
+                Arguments.of("Smallest 4 Bytes", new int[] {0xF0, 0x90, 0x80, 0x80, ' ', 'x'}),
+                Arguments.of("Largest Code Point", new int[] {0xF4, 0x8F, 0xBF, 0xBF, ' ', 'x'})
+        );
+    }
+
+    @Test
+    void testRandomMalformed() {
+        int[] choices = {'x', ' ', '"', '\'', 0x80, 0x8F, 0x90, 0x9F, 0xA0, 0xBF, 0xC0, 0xC2, 0xDF,
+                0xE0, 0xE2, 0xED, 0xEF, 0xF0, 0xF4, 0xF5, 0xFF};
+        Random random = new Random(7);
+        for(int i = 0; i < 20000; i++) {
+            byte[] bytes = new byte[random.nextInt(10)];
+            for(int j = 0; j < bytes.length; j++) {
+                bytes[j] = (byte) choices[random.nextInt(choices.length)];
+            }
+            test(bytes);
+        }
+    }
+
+    /**
+     * Asserts that lexing the UTF-8 bytes of the input matches {@link DfaLexer},
+     * including the index of any {@link ParseException}.
+     */
+    private static void test(String input) {
+        test(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Asserts that lexing {@code bytes} matches {@link DfaLexer} on the
+     * {@link String} the JDK decodes them to, including the literals.
+     */
+    private static void test(byte[] bytes) {
+        String input = new String(bytes, StandardCharsets.UTF_8);
+        List<Token> expected;
+        try {
+            expected = new DfaLexer(input).lex();
+        } catch (ParseException e) {
+            ParseException actual = Assertions.assertThrows(ParseException.class,
+                    () -> new Utf8Lexer(bytes).lex(), input);
+            Assertions.assertEquals(e.getIndex(), actual.getIndex(), input);
+            return;
+        }
+        Assertions.assertEquals(expected, new Utf8Lexer(bytes).lex(), input);
+    }
+
+}